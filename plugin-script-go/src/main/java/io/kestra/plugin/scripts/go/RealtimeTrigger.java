@@ -0,0 +1,77 @@
+package io.kestra.plugin.scripts.go;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.plugin.scripts.exec.AbstractRealtimeScriptTrigger;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger on events streamed by a long-running Go program",
+    description = "Starts the Go program once (default image golang) and keeps it running. Each ::{\"outputs\":...}:: line it prints is an event; events matching the optional condition emit an execution immediately, without starting a process or container per poll. The script is restarted after restartDelay if it exits."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Emit an execution for each event streamed by a Go program.",
+            full = true,
+            code = """
+                id: go_realtime_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.scripts.go.RealtimeTrigger
+                    script: |
+                      package main
+
+                      import (
+                          "fmt"
+                          "time"
+                      )
+
+                      func main() {
+                          for i := 0; ; i++ {
+                              fmt.Printf("::{\\"outputs\\":{\\"tick\\":%d}}::\\n", i)
+                              time.Sleep(time.Second)
+                          }
+                      }
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "Tick {{ trigger.vars.tick }}"
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractRealtimeScriptTrigger {
+    private static final String DEFAULT_IMAGE = "golang";
+
+    @Schema(
+        title = "Container image for the Go runtime",
+        description = "Defaults to 'golang'; only used by the Docker task runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<String> containerImage = Property.ofValue(DEFAULT_IMAGE);
+
+    @Override
+    protected String scriptExtension() {
+        return ".go";
+    }
+
+    @Override
+    protected String runCommand(String scriptPath) {
+        return "go run " + scriptPath;
+    }
+}
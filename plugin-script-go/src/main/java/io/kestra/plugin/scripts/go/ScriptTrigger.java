@@ -1,36 +1,19 @@
 package io.kestra.plugin.scripts.go;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
-import io.kestra.core.models.conditions.ConditionContext;
-import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
-import io.kestra.core.models.tasks.RunnableTaskException;
-import io.kestra.core.models.tasks.runners.TaskException;
-import io.kestra.core.models.triggers.AbstractTrigger;
-import io.kestra.core.models.triggers.PollingTriggerInterface;
-import io.kestra.core.models.triggers.TriggerContext;
-import io.kestra.core.models.triggers.TriggerOutput;
-import io.kestra.core.models.triggers.TriggerService;
+import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
-import io.kestra.plugin.scripts.exec.TriggerRunContext;
+import io.kestra.plugin.scripts.exec.AbstractScriptTrigger;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -78,11 +61,9 @@ import lombok.experimental.SuperBuilder;
         )
     }
 )
-public class ScriptTrigger extends AbstractTrigger
-    implements PollingTriggerInterface, TriggerOutput<ScriptTrigger.Output> {
+public class ScriptTrigger extends AbstractScriptTrigger {
 
     private static final String DEFAULT_IMAGE = "golang";
-    private static final Pattern EXIT_CONDITION_PATTERN = Pattern.compile("^\\s*exit\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE);
 
     @Schema(
         title = "Container image for script execution",
@@ -110,6 +91,8 @@ public class ScriptTrigger extends AbstractTrigger
         description = """
             Rendered condition evaluated after each execution; the trigger emits only when it matches.
             'exit N' compares the exit code, otherwise the string is used as a regex (or substring fallback) against emitted vars (from ::{"outputs":...}::) and failure logs.
+            '$.path.to.key' matches when that var is set (and not false), 'key=value' or '$.path.to.key=value' compares a var, and regexes are matched against each 'path=value' leaf of the vars, then, when they contain ',', '{' or '}', against the whole map.
+            'changed' or 'changed $.path.to.key' matches when the vars, or that var, differ from the previous poll; with `changeFile`, when the content of that file differs. The first poll never matches.
             """
     )
     @NotNull
@@ -136,145 +119,14 @@ public class ScriptTrigger extends AbstractTrigger
     @PluginProperty(group = "advanced")
     protected Property<Boolean> edge = Property.ofValue(true);
 
-    @Builder.Default
-    @Getter(AccessLevel.NONE)
-    private final AtomicBoolean lastMatched = new AtomicBoolean(false);
-
     @Override
-    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
-        RunContext runContext = conditionContext.getRunContext();
-        boolean renderedEdge = runContext.render(this.edge).as(Boolean.class).orElse(true);
-
-        Output out;
-        try {
-            out = runOnce(runContext);
-        } catch (Exception e) {
-            runContext.logger().warn("Trigger evaluation failed, returning empty result to avoid blocking the scheduler", e);
-            return Optional.empty();
-        }
-
-        boolean matched = matchesCondition(out);
-
-        boolean emit = renderedEdge
-            ? (!lastMatched.getAndSet(matched) && matched)
-            : matched;
-
-        if (!emit) {
-            return Optional.empty();
-        }
-
-        return Optional.of(TriggerService.generateExecution(this, conditionContext, context, out));
-    }
-
-    private Output runOnce(RunContext runContext) throws Exception {
-        Script task = Script.builder()
+    protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception {
+        return Script.builder()
             .id(this.getId())
             .type(Script.class.getName())
             .containerImage(this.containerImage)
             .script(this.script)
+            .outputFiles(this.changeFileOutputs(runContext))
             .build();
-
-        String renderedExitCondition = runContext.render(this.exitCondition).as(String.class).orElse("");
-
-        try {
-            ScriptOutput taskOutput = task.run(TriggerRunContext.forEmbeddedTask(runContext, task));
-            Integer exitCode = safeExitCode(taskOutput);
-            Map<String, Object> vars = safeVars(taskOutput);
-
-            return new Output(Instant.now(), renderedExitCondition, exitCode, vars);
-        } catch (RunnableTaskException e) {
-            ExtractedFailure failure = extractFailure(e);
-            return new Output(Instant.now(), renderedExitCondition, failure.exitCode, null);
-        }
-    }
-
-    private boolean matchesCondition(Output out) {
-        String cond = out.getCondition() == null ? "" : out.getCondition().trim();
-
-        Matcher exitMatcher = EXIT_CONDITION_PATTERN.matcher(cond);
-        if (exitMatcher.matches()) {
-            int expected = Integer.parseInt(exitMatcher.group(1));
-            return out.getExitCode() != null && out.getExitCode() == expected;
-        }
-
-        String haystack = buildHaystack(out);
-        if (haystack.isEmpty() || cond.isEmpty()) {
-            return false;
-        }
-
-        try {
-            return Pattern.compile(cond).matcher(haystack).find();
-        } catch (Exception invalidRegex) {
-            return haystack.contains(cond);
-        }
-    }
-
-    private String buildHaystack(Output out) {
-        if (out.getVars() == null || out.getVars().isEmpty()) {
-            return "";
-        }
-        return out.getVars().toString();
-    }
-
-    private Integer safeExitCode(ScriptOutput taskOutput) {
-        try {
-            return taskOutput.getExitCode();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private Map<String, Object> safeVars(ScriptOutput taskOutput) {
-        try {
-            return taskOutput.getVars();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private record ExtractedFailure(Integer exitCode) {
-    }
-
-    private ExtractedFailure extractFailure(RunnableTaskException e) {
-        Integer exitCode = null;
-
-        Throwable cur = e.getCause();
-        while (cur != null) {
-            if (cur instanceof TaskException te) {
-                exitCode = te.getExitCode();
-                break;
-            }
-            cur = cur.getCause();
-        }
-
-        return new ExtractedFailure(exitCode);
-    }
-
-    @Data
-    @AllArgsConstructor
-    public static class Output implements io.kestra.core.models.tasks.Output {
-        @Schema(title = "Timestamp of the event that fired the trigger")
-        private Instant timestamp;
-
-        @Schema(
-            title = "Rendered condition",
-            description = "Rendered value of the exitCondition property for this poll."
-        )
-        private String condition;
-
-        @Schema(
-            title = "Script exit code",
-            description = "Exit code returned by the Go process (may be null if not available)."
-        )
-        private Integer exitCode;
-
-        @Schema(
-            title = "Script vars",
-            description = """
-                Vars produced by the task (e.g. via ::{"outputs":{...}}:: convention). This is the main structured
-                way to evaluate non-exit conditions on successful runs.
-                """
-        )
-        private Map<String, Object> vars;
     }
 }
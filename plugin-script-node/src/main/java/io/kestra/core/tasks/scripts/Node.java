@@ -1,12 +1,8 @@
 package io.kestra.core.tasks.scripts;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
-
-import org.apache.commons.io.IOUtils;
-
-import com.google.common.base.Charsets;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
@@ -14,6 +10,8 @@ import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.RunnerType;
+import io.kestra.plugin.scripts.node.internals.NodeEnvironmentManager;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
@@ -125,32 +123,18 @@ public class Node extends AbstractBash implements RunnableTask<io.kestra.core.ta
     @PluginProperty(group = "advanced")
     private Property<List<String>> args;
 
-    @Override
-    protected Map<String, String> finalInputFiles(RunContext runContext) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = super.finalInputFiles(runContext);
-
-        map.put(
-            "kestra.js", IOUtils.toString(
-                Objects.requireNonNull(Node.class.getClassLoader().getResourceAsStream("kestra.js")),
-                Charsets.UTF_8
-            )
-        );
-
-        return map;
-    }
+    @Schema(
+        title = "Cache the npm dependencies across executions",
+        description = "When a `package.json` input file is provided, the installed `node_modules` directory is cached in the internal storage, " +
+            "keyed by the `package.json` and lock files, the runner, the Docker image and the worker architecture. On a cache hit, `npm i` is skipped."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> dependencyCacheEnabled = Property.ofValue(true);
 
     @Override
-    protected Map<String, String> finalInputFiles(RunContext runContext, Map<String, Object> additionalVar) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = super.finalInputFiles(runContext, additionalVar);
-
-        map.put(
-            "kestra.js", IOUtils.toString(
-                Objects.requireNonNull(Node.class.getClassLoader().getResourceAsStream("kestra.js")),
-                Charsets.UTF_8
-            )
-        );
-
-        return map;
+    protected List<String> helperResources() {
+        return List.of("kestra.js");
     }
 
     @Override
@@ -161,7 +145,13 @@ public class Node extends AbstractBash implements RunnableTask<io.kestra.core.ta
             throw new Exception("Invalid input files structure, expecting inputFiles property to contain at least a main.js key with javascript code value.");
         }
 
-        return run(runContext, throwSupplier(() ->
+        NodeEnvironmentManager environmentManager = finalInputFiles.containsKey("package.json") && runContext.render(this.dependencyCacheEnabled).as(Boolean.class).orElse(true) ?
+            new NodeEnvironmentManager(runContext, this.getType(), runContext.workingDir().path()) :
+            null;
+        AtomicReference<String> dependencyHash = new AtomicReference<>();
+        AtomicReference<Boolean> cached = new AtomicReference<>(false);
+
+        ScriptOutput output = run(runContext, throwSupplier(() ->
         {
             // final command
             List<String> renderer = new ArrayList<>();
@@ -173,7 +163,13 @@ public class Node extends AbstractBash implements RunnableTask<io.kestra.core.ta
             var renderedArgs = runContext.render(this.getArgs()).asList(String.class);
             String args = renderedArgs.isEmpty() ? "" : " " + String.join(" ", renderedArgs);
 
-            String npmInstall = finalInputFiles.containsKey("package.json") ? runContext.render(npmPath).as(String.class).orElse(null) + " i > /dev/null" : "";
+            // the input files are already in the working directory
+            if (environmentManager != null) {
+                dependencyHash.set(environmentManager.hash(this.platform(runContext)).orElse(null));
+                cached.set(dependencyHash.get() != null && environmentManager.restore(dependencyHash.get()));
+            }
+
+            String npmInstall = finalInputFiles.containsKey("package.json") && !cached.get() ? runContext.render(npmPath).as(String.class).orElse(null) + " i > /dev/null" : "";
 
             renderer.addAll(
                 Arrays.asList(
@@ -185,5 +181,20 @@ public class Node extends AbstractBash implements RunnableTask<io.kestra.core.ta
 
             return String.join("\n", renderer);
         }));
+
+        if (dependencyHash.get() != null && !cached.get()) {
+            environmentManager.uploadCache(dependencyHash.get());
+        }
+
+        return output;
+    }
+
+    private Object[] platform(RunContext runContext) throws IllegalVariableEvaluationException {
+        RunnerType runnerType = runContext.render(this.runner).as(RunnerType.class).orElseThrow();
+        if (runnerType == RunnerType.DOCKER && this.dockerOptions != null) {
+            return new Object[]{runnerType, runContext.render(this.dockerOptions.getImage(), additionalVars), System.getProperty("os.arch")};
+        }
+
+        return new Object[]{runnerType, System.getProperty("os.name"), System.getProperty("os.arch")};
     }
 }
@@ -1,6 +1,7 @@
 package io.kestra.plugin.scripts.node;
 
 import java.util.List;
+import java.util.Map;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
@@ -8,10 +9,13 @@ import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.models.tasks.runners.TargetOS;
+import io.kestra.core.runners.FilesService;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.scripts.exec.AbstractExecScript;
 import io.kestra.plugin.scripts.exec.scripts.models.DockerOptions;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+import io.kestra.plugin.scripts.node.internals.NodeEnvironmentManager;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -71,6 +75,17 @@ public class Commands extends AbstractExecScript implements RunnableTask<ScriptO
     @PluginProperty(group = "main")
     protected Property<List<String>> commands;
 
+    @Schema(
+        title = "Cache the npm dependencies across executions",
+        description = "When a `package.json` input file is provided, the `node_modules` directory installed by the `beforeCommands` is cached in the internal storage, " +
+            "keyed by the `package.json` and lock files, the task runner, the container image and the worker architecture, then restored in the working directory of the next executions " +
+            "so that `npm install` only checks it.\n" +
+            "Only the task runners sharing the working directory with the host, such as the `Process` task runner or a Docker task runner with the `MOUNT` file handling strategy, upload the cache."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> dependencyCacheEnabled = Property.ofValue(true);
+
     @Override
     protected DockerOptions injectDefaults(RunContext runContext, DockerOptions original) throws IllegalVariableEvaluationException {
         var builder = original.toBuilder();
@@ -83,14 +98,38 @@ public class Commands extends AbstractExecScript implements RunnableTask<ScriptO
 
     @Override
     public ScriptOutput run(RunContext runContext) throws Exception {
+        CommandsWrapper commands = this.commands(runContext);
+
+        // written to the working directory up front, so that node_modules can be restored next to package.json
+        Map<String, String> inputFiles = FilesService.inputFiles(runContext, commands.getTaskRunner().additionalVars(runContext, commands), this.getInputFiles());
+        commands = commands.withInputFiles(inputFiles);
+
+        NodeEnvironmentManager environmentManager = this.environmentManager(runContext);
+        String dependencyHash = environmentManager != null ?
+            environmentManager.hash(commands.getTaskRunner(), runContext.render(this.containerImage).as(String.class).orElse(null)).orElse(null) :
+            null;
+        boolean cached = dependencyHash != null && environmentManager.restore(dependencyHash);
+
         TargetOS os = runContext.render(this.targetOS).as(TargetOS.class).orElse(null);
 
-        return this.commands(runContext)
+        ScriptOutput output = commands
             .withInterpreter(this.interpreter)
             .withBeforeCommands(beforeCommands)
             .withBeforeCommandsWithOptions(true)
-            .withCommands(commands)
+            .withCommands(this.commands)
             .withTargetOS(os)
             .run();
+
+        if (dependencyHash != null && !cached) {
+            environmentManager.uploadCache(dependencyHash);
+        }
+
+        return output;
+    }
+
+    private NodeEnvironmentManager environmentManager(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(this.dependencyCacheEnabled).as(Boolean.class).orElse(true) ?
+            new NodeEnvironmentManager(runContext, this.getType(), runContext.workingDir().path()) :
+            null;
     }
 }
@@ -0,0 +1,70 @@
+package io.kestra.plugin.scripts.node;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.plugin.scripts.exec.AbstractRealtimeScriptTrigger;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger on events streamed by a long-running Node.js script",
+    description = "Starts the Node.js script once (default image node) and keeps it running. Each ::{\"outputs\":...}:: line it prints is an event; events matching the optional condition emit an execution immediately, without starting a process or container per poll. The script is restarted after restartDelay if it exits."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Emit an execution for each event streamed by a Node.js script.",
+            full = true,
+            code = """
+                id: node_realtime_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.scripts.node.RealtimeTrigger
+                    script: |
+                      setInterval(() => {
+                        const value = Math.random();
+                        if (value > 0.9) {
+                          console.log("::" + JSON.stringify({ outputs: { value } }) + "::");
+                        }
+                      }, 500);
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "Value {{ trigger.vars.value }}"
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractRealtimeScriptTrigger {
+    private static final String DEFAULT_IMAGE = "node";
+
+    @Schema(
+        title = "Container image for the Node.js runtime",
+        description = "Defaults to 'node'; only used by the Docker task runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<String> containerImage = Property.ofValue(DEFAULT_IMAGE);
+
+    @Override
+    protected String scriptExtension() {
+        return ".js";
+    }
+
+    @Override
+    protected String runCommand(String scriptPath) {
+        return "node " + scriptPath;
+    }
+}
@@ -18,6 +18,7 @@ import io.kestra.plugin.scripts.exec.AbstractExecScript;
 import io.kestra.plugin.scripts.exec.scripts.models.DockerOptions;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+import io.kestra.plugin.scripts.node.internals.NodeEnvironmentManager;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -188,6 +189,17 @@ public class Script extends AbstractExecScript implements RunnableTask<ScriptOut
     @PluginProperty(language = MonacoLanguages.JAVASCRIPT, group = "main")
     protected Property<String> script;
 
+    @Schema(
+        title = "Cache the npm dependencies across executions",
+        description = "When a `package.json` input file is provided, the `node_modules` directory installed by the `beforeCommands` is cached in the internal storage, " +
+            "keyed by the `package.json` and lock files, the task runner, the container image and the worker architecture, then restored in the working directory of the next executions " +
+            "so that `npm install` only checks it.\n" +
+            "Only the task runners sharing the working directory with the host, such as the `Process` task runner or a Docker task runner with the `MOUNT` file handling strategy, upload the cache."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> dependencyCacheEnabled = Property.ofValue(true);
+
     @Override
     protected DockerOptions injectDefaults(RunContext runContext, DockerOptions original) throws IllegalVariableEvaluationException {
         var builder = original.toBuilder();
@@ -210,8 +222,15 @@ public class Script extends AbstractExecScript implements RunnableTask<ScriptOut
         );
         commands = commands.withInputFiles(inputFiles);
 
+        // the input files are already in the working directory, node_modules is restored next to them
+        NodeEnvironmentManager environmentManager = this.environmentManager(runContext);
+        String dependencyHash = environmentManager != null ?
+            environmentManager.hash(commands.getTaskRunner(), runContext.render(this.containerImage).as(String.class).orElse(null)).orElse(null) :
+            null;
+        boolean cached = dependencyHash != null && environmentManager.restore(dependencyHash);
+
         TargetOS os = runContext.render(this.targetOS).as(TargetOS.class).orElse(null);
-        return commands
+        ScriptOutput output = commands
             .addEnv(
                 Map.of(
                     "PYTHONUNBUFFERED", "true",
@@ -230,5 +249,17 @@ public class Script extends AbstractExecScript implements RunnableTask<ScriptOut
             )
             .withTargetOS(os)
             .run();
+
+        if (dependencyHash != null && !cached) {
+            environmentManager.uploadCache(dependencyHash);
+        }
+
+        return output;
+    }
+
+    private NodeEnvironmentManager environmentManager(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(this.dependencyCacheEnabled).as(Boolean.class).orElse(true) ?
+            new NodeEnvironmentManager(runContext, this.getType(), runContext.workingDir().path()) :
+            null;
     }
 }
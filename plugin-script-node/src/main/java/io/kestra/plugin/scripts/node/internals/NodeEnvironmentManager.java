@@ -0,0 +1,281 @@
+package io.kestra.plugin.scripts.node.internals;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.tasks.runners.TaskRunner;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.core.runner.Process;
+
+/**
+ * Caches the {@code node_modules} directory of the node tasks in the internal storage cache.
+ * <p>
+ * The cache key is the SHA-256 of the {@code package.json} file, of the lock files next to it, and of the platform
+ * the dependencies are installed for (runner, container image or OS, architecture). On a hit, {@code node_modules} is restored into
+ * the working directory before the commands run; on a miss, it is archived and uploaded once the commands succeeded.
+ */
+public class NodeEnvironmentManager {
+    /**
+     * 0: TAR+GZIP
+     */
+    private static final int CACHE_FORMAT_VERSION = 0; // Increment the value when changing the cache format to avoid cache restoration error
+
+    public static final String PACKAGE_JSON = "package.json";
+    public static final List<String> LOCK_FILES = List.of("package-lock.json", "npm-shrinkwrap.json", "yarn.lock", "pnpm-lock.yaml");
+    public static final String NODE_MODULES = "node_modules";
+
+    private final RunContext runContext;
+    private final String pluginType;
+    private final Path workingDir;
+
+    /**
+     * @param runContext The run context.
+     * @param pluginType The type of the plugin, part of the cache key.
+     * @param workingDir The working directory holding the {@code package.json} file.
+     */
+    public NodeEnvironmentManager(final RunContext runContext, final String pluginType, final Path workingDir) {
+        this.runContext = runContext;
+        this.pluginType = pluginType;
+        this.workingDir = workingDir;
+    }
+
+    /**
+     * Computes the cache key of the dependencies declared in the working directory.
+     *
+     * @param platform The parts identifying the platform the dependencies are installed for, {@code null} allowed.
+     * @return the key, or empty when there is no {@code package.json}.
+     */
+    public Optional<String> hash(final Object... platform) throws IOException {
+        if (!Files.isRegularFile(workingDir.resolve(PACKAGE_JSON))) {
+            return Optional.empty();
+        }
+
+        MessageDigest digest = sha256();
+        for (String name : manifests()) {
+            Path file = workingDir.resolve(name);
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (Files.isRegularFile(file)) {
+                digest.update(Files.readAllBytes(file));
+            }
+            digest.update((byte) 0);
+        }
+        for (Object part : platform) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+
+        return Optional.of(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Computes the cache key of the dependencies installed by the given task runner.
+     *
+     * @param taskRunner The task runner of the task.
+     * @param containerImage The container image of the task, ignored by the process task runner.
+     * @return the key, or empty when there is no {@code package.json}.
+     */
+    public Optional<String> hash(final TaskRunner<?> taskRunner, final String containerImage) throws IOException {
+        if (taskRunner instanceof Process) {
+            return hash(taskRunner.getType(), System.getProperty("os.name"), System.getProperty("os.arch"));
+        }
+
+        // a tag such as `node` pulls the image of the worker architecture, whose native modules differ
+        return hash(taskRunner.getType(), containerImage, System.getProperty("os.arch"));
+    }
+
+    /**
+     * Restores the cached {@code node_modules} into the working directory.
+     *
+     * @param hash The cache key.
+     * @return whether the cache was found and restored.
+     */
+    public boolean restore(final String hash) throws IOException {
+        final long start = System.currentTimeMillis();
+
+        Optional<InputStream> cacheFile = runContext.storage().getCacheFile(getCacheKey(), hash);
+        if (cacheFile.isEmpty()) {
+            runContext.logger().debug("Could not find node dependencies cache for key: {}", hash);
+            return false;
+        }
+
+        runContext.logger().debug("Restoring node dependencies cache for key: {}", hash);
+        try (
+            InputStream inputStream = new BufferedInputStream(cacheFile.get());
+            GzipCompressorInputStream gzis = new GzipCompressorInputStream(inputStream);
+            TarArchiveInputStream tais = new TarArchiveInputStream(gzis)
+        ) {
+            Path root = workingDir.resolve(NODE_MODULES);
+            if (Files.isSymbolicLink(root)) {
+                throw new IOException("Invalid " + NODE_MODULES + " directory, it is a symbolic link");
+            }
+            Files.createDirectories(root);
+            Path realRoot = root.toRealPath();
+
+            TarArchiveEntry entry;
+            while ((entry = tais.getNextEntry()) != null) {
+                Path outputPath = root.resolve(entry.getName()).normalize();
+
+                // Prevent tar-slip vulnerability
+                if (!outputPath.startsWith(root)) {
+                    throw new IOException("Invalid node dependencies cache entry: " + entry.getName());
+                }
+
+                if (entry.isDirectory()) {
+                    Files.createDirectories(outputPath);
+                } else if (entry.isSymbolicLink()) {
+                    Files.createDirectories(outputPath.getParent());
+                    Path link = Path.of(entry.getLinkName());
+                    // Prevent links out of node_modules, later entries could be written through them.
+                    // The `..` are only allowed first, so that the target is the same once the links in it are followed.
+                    Path target = outputPath.getParent().toRealPath().resolve(link).normalize();
+                    if (link.isAbsolute() || !link.normalize().equals(link) || !target.startsWith(realRoot)) {
+                        throw new IOException("Invalid node dependencies cache link: " + entry.getName() + " -> " + entry.getLinkName());
+                    }
+                    Files.createSymbolicLink(outputPath, link);
+                } else {
+                    Files.createDirectories(outputPath.getParent());
+                    Files.copy(tais, outputPath);
+                    setPosixPermission(outputPath, entry.getMode());
+                }
+            }
+        }
+
+        runContext.logger().debug("Cache restored successfully");
+        runContext.metric(Timer.of("deps.cache.download.duration", Duration.ofMillis(System.currentTimeMillis() - start)));
+        return true;
+    }
+
+    /**
+     * Archives the {@code node_modules} of the working directory and uploads it to the cache.
+     *
+     * @param hash The cache key.
+     */
+    public void uploadCache(final String hash) throws IOException {
+        Path root = workingDir.resolve(NODE_MODULES);
+        if (!Files.isDirectory(root)) {
+            // e.g. installed in a container that doesn't share the working directory
+            runContext.logger().debug("No {} directory to cache in the working directory", NODE_MODULES);
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        runContext.logger().debug("Uploading node dependencies cache for key: {}", hash);
+
+        Path archive = runContext.workingDir().createTempFile(".tar.gz");
+        try (
+            OutputStream fos = Files.newOutputStream(archive);
+            BufferedOutputStream bos = new BufferedOutputStream(fos);
+            GzipCompressorOutputStream gzos = new GzipCompressorOutputStream(bos);
+            TarArchiveOutputStream taos = new TarArchiveOutputStream(gzos)
+        ) {
+            taos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    String entryName = entryName(root, dir);
+                    if (!entryName.isEmpty()) {
+                        TarArchiveEntry dirEntry = new TarArchiveEntry(dir.toFile(), entryName + "/");
+                        taos.putArchiveEntry(dirEntry);
+                        taos.closeArchiveEntry();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    // the binaries in node_modules/.bin are links to the packages
+                    if (attrs.isSymbolicLink()) {
+                        TarArchiveEntry linkEntry = new TarArchiveEntry(entryName(root, file), TarConstants.LF_SYMLINK);
+                        linkEntry.setLinkName(Files.readSymbolicLink(file).toString());
+                        taos.putArchiveEntry(linkEntry);
+                        taos.closeArchiveEntry();
+                    } else if (attrs.isRegularFile()) {
+                        TarArchiveEntry tarEntry = new TarArchiveEntry(file, entryName(root, file), LinkOption.NOFOLLOW_LINKS);
+                        taos.putArchiveEntry(tarEntry);
+                        Files.copy(file, taos);
+                        taos.closeArchiveEntry();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        File cache = archive.toFile();
+        runContext.storage().putCacheFile(cache, getCacheKey(), hash);
+        runContext.logger().debug("Cache uploaded successfully (size: {} bytes)", cache.length());
+        runContext.metric(Timer.of("deps.cache.upload.duration", Duration.ofMillis(System.currentTimeMillis() - start)));
+    }
+
+    private String getCacheKey() {
+        return "node-dependencies-v" + CACHE_FORMAT_VERSION + "-" + pluginType;
+    }
+
+    private static List<String> manifests() {
+        return Stream.concat(Stream.of(PACKAGE_JSON), LOCK_FILES.stream()).toList();
+    }
+
+    private static String entryName(Path root, Path path) {
+        return root.relativize(path).toString().replace("\\", "/");
+    }
+
+    private static void setPosixPermission(Path file, int mode) {
+        if ((mode & 0777) == 0) {
+            return;
+        }
+
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        PosixFilePermission[] values = PosixFilePermission.values();
+        // PosixFilePermission is ordered from OWNER_READ (0400) to OTHERS_EXECUTE (0001)
+        for (int i = 0; i < values.length; i++) {
+            if ((mode & (0400 >> i)) != 0) {
+                permissions.add(values[i]);
+            }
+        }
+
+        try {
+            Files.setPosixFilePermissions(file, permissions);
+        } catch (UnsupportedOperationException | IOException ignore) {
+            // Skipping unix file permission
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+}
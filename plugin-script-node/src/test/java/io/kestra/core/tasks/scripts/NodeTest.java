@@ -16,6 +16,7 @@ import io.kestra.core.models.tasks.RunnableTaskException;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
 import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
 
 import jakarta.inject.Inject;
@@ -98,6 +99,36 @@ class NodeTest {
         assertThat(run.getVars().get("extract"), is("200"));
     }
 
+    @Test
+    void requirementsAreRestoredFromTheDependencyCache() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put("main.js", "console.log('::{\"outputs\": {\"extract\":\"' + require('is-number')(42) + '\"}}::')");
+        // a new package.json on each test run, so the first run always misses the cache
+        files.put("package.json", "{\"name\":\"" + IdUtils.create().toLowerCase() + "\",\"dependencies\":{\"is-number\":\"7.0.0\"}}");
+
+        Node node = Node.builder()
+            .id("test-node-task")
+            .type(Node.class.getName())
+            .nodePath(Property.ofValue("node"))
+            .npmPath(Property.ofValue("npm"))
+            .inputFiles(files)
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, node, ImmutableMap.of());
+        ScriptOutput run = node.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("extract"), is("true"));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.upload.duration")), is(true));
+
+        runContext = TestsUtils.mockRunContext(runContextFactory, node, ImmutableMap.of());
+        run = node.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("extract"), is("true"));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.download.duration")), is(true));
+    }
+
     @Test
     void manyFiles() throws Exception {
         Map<String, String> files = new HashMap<>();
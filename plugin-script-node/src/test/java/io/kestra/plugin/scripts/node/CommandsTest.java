@@ -2,7 +2,9 @@ package io.kestra.plugin.scripts.node;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -20,7 +22,9 @@ import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.core.runner.Process;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 
 import jakarta.inject.Inject;
@@ -74,4 +78,30 @@ class CommandsTest {
         receive.blockLast();
         assertThat(List.copyOf(logs).stream().filter(logEntry -> logEntry.getMessage() != null && logEntry.getMessage().contains("hello there!")).count(), is(1L));
     }
+
+    @Test
+    void dependenciesAreRestoredFromTheCache() throws Exception {
+        Commands nodeCommands = Commands.builder()
+            .id("node-commands-" + UUID.randomUUID())
+            .type(Commands.class.getName())
+            .taskRunner(Process.instance())
+            // a new package.json on each test run, so the first run always misses the cache
+            .inputFiles(Map.of("package.json", "{\"name\":\"" + IdUtils.create().toLowerCase() + "\",\"dependencies\":{\"is-number\":\"7.0.0\"}}"))
+            .beforeCommands(Property.ofValue(List.of("npm install --no-audit --no-fund > /dev/null")))
+            .commands(Property.ofValue(List.of("node -e \"console.log(require('is-number')(42))\"")))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, nodeCommands, ImmutableMap.of());
+        ScriptOutput run = nodeCommands.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.upload.duration")), is(true));
+
+        runContext = TestsUtils.mockRunContext(runContextFactory, nodeCommands, ImmutableMap.of());
+        run = nodeCommands.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.download.duration")), is(true));
+        assertThat(Files.isDirectory(runContext.workingDir().path().resolve("node_modules/is-number")), is(true));
+    }
 }
@@ -1,6 +1,8 @@
 package io.kestra.plugin.scripts.node;
 
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -15,7 +17,9 @@ import io.kestra.core.queues.QueueFactoryInterface;
 import io.kestra.core.queues.QueueInterface;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.core.runner.Process;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 
 import jakarta.inject.Inject;
@@ -56,4 +60,30 @@ class ScriptTest {
         receive.blockLast();
         assertThat(List.copyOf(logs).stream().filter(logEntry -> logEntry.getMessage() != null && logEntry.getMessage().contains("hello there!")).count(), is(1L));
     }
+
+    @Test
+    void dependenciesAreRestoredFromTheCache() throws Exception {
+        Script nodeScript = Script.builder()
+            .id("node-script-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .taskRunner(Process.instance())
+            // a new package.json on each test run, so the first run always misses the cache
+            .inputFiles(Map.of("package.json", "{\"name\":\"" + IdUtils.create().toLowerCase() + "\",\"dependencies\":{\"is-number\":\"7.0.0\"}}"))
+            .beforeCommands(Property.ofValue(List.of("npm install --no-audit --no-fund > /dev/null")))
+            .script(Property.ofValue("console.log(require('is-number')(42))"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, nodeScript, ImmutableMap.of());
+        ScriptOutput run = nodeScript.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.upload.duration")), is(true));
+
+        runContext = TestsUtils.mockRunContext(runContextFactory, nodeScript, ImmutableMap.of());
+        run = nodeScript.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.download.duration")), is(true));
+        assertThat(Files.isDirectory(runContext.workingDir().path().resolve("node_modules/is-number")), is(true));
+    }
 }
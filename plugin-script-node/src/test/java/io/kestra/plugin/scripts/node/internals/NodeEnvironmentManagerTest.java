@@ -0,0 +1,95 @@
+package io.kestra.plugin.scripts.node.internals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.plugin.scripts.node.Script;
+import io.kestra.plugin.scripts.runner.docker.Docker;
+
+import jakarta.inject.Inject;
+
+import static io.kestra.core.utils.TestsUtils.mockRunContext;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class NodeEnvironmentManagerTest {
+    @Inject
+    RunContextFactory runContextFactory;
+
+    @Test
+    void shouldRestoreTheLinksInsideNodeModules() throws Exception {
+        String hash = IdUtils.create();
+        uploadModulesWithLink(hash, "../is-number/index.js");
+
+        RunContext runContext = runContext();
+        NodeEnvironmentManager manager = new NodeEnvironmentManager(runContext, Script.class.getName(), runContext.workingDir().path());
+
+        assertThat(manager.restore(hash), is(true));
+
+        Path link = runContext.workingDir().path().resolve("node_modules/.bin/is-number");
+        assertThat(Files.isSymbolicLink(link), is(true));
+        assertThat(Files.readString(link), is("module.exports = () => true;"));
+    }
+
+    @Test
+    void shouldRejectTheLinksOutOfNodeModules() throws Exception {
+        for (String target : new String[]{"../../..", "/etc", "../is-number/../../.."}) {
+            String hash = IdUtils.create();
+            uploadModulesWithLink(hash, target);
+
+            RunContext runContext = runContext();
+            NodeEnvironmentManager manager = new NodeEnvironmentManager(runContext, Script.class.getName(), runContext.workingDir().path());
+
+            IOException e = assertThrows(IOException.class, () -> manager.restore(hash));
+            assertThat(e.getMessage(), containsString("Invalid node dependencies cache link"));
+        }
+    }
+
+    @Test
+    void shouldKeyContainerCachesByArchitecture() throws Exception {
+        RunContext runContext = runContext();
+        Files.writeString(runContext.workingDir().path().resolve(NodeEnvironmentManager.PACKAGE_JSON), "{}");
+        NodeEnvironmentManager manager = new NodeEnvironmentManager(runContext, Script.class.getName(), runContext.workingDir().path());
+
+        Docker docker = Docker.instance();
+
+        assertThat(
+            manager.hash(docker, "node").orElseThrow(),
+            is(manager.hash(docker.getType(), "node", System.getProperty("os.arch")).orElseThrow())
+        );
+    }
+
+    private void uploadModulesWithLink(String hash, String target) throws IOException {
+        RunContext runContext = runContext();
+        Path modules = runContext.workingDir().path().resolve(NodeEnvironmentManager.NODE_MODULES);
+        Files.createDirectories(modules.resolve("is-number"));
+        Files.writeString(modules.resolve("is-number/index.js"), "module.exports = () => true;");
+        Files.createDirectories(modules.resolve(".bin"));
+        Files.createSymbolicLink(modules.resolve(".bin/is-number"), Path.of(target));
+
+        new NodeEnvironmentManager(runContext, Script.class.getName(), runContext.workingDir().path()).uploadCache(hash);
+    }
+
+    private RunContext runContext() {
+        Script task = Script.builder()
+            .id("node-env-manager-test-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .script(Property.ofValue("console.log('hello')"))
+            .build();
+
+        return mockRunContext(runContextFactory, task, Map.of());
+    }
+}
@@ -1,11 +1,10 @@
 package io.kestra.core.tasks.scripts;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-
-import org.apache.commons.io.IOUtils;
-
-import com.google.common.base.Charsets;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
@@ -14,7 +13,11 @@ import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.RunnerType;
 import io.kestra.plugin.scripts.python.internals.PackageManagerType;
+import io.kestra.plugin.scripts.python.internals.PythonBasedPlugin;
+import io.kestra.plugin.scripts.python.internals.PythonEnvironmentManager;
+import io.kestra.plugin.scripts.python.internals.PythonEnvironmentManager.ResolvedPythonEnvironment;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
@@ -160,6 +163,17 @@ public class Python extends AbstractBash implements RunnableTask<ScriptOutput> {
     @PluginProperty(group = "advanced")
     protected Property<PackageManagerType> packageManager = Property.ofValue(PackageManagerType.PIP);
 
+    @Schema(
+        title = "Cache the `requirements` across executions",
+        description = "When enabled with a virtual env, the `requirements` are resolved once and cached, as for the " +
+            "[io.kestra.plugin.scripts.python.Script](https://kestra.io/plugins/tasks/io.kestra.plugin.scripts.python.script) task, " +
+            "then added to the virtual env through `PYTHONPATH` instead of being installed on every execution.\n" +
+            "The requirements are still installed in the virtual env when a `pip.conf` input file is provided, since only the virtual env pip reads it."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> dependencyCacheEnabled = Property.ofValue(true);
+
     protected String virtualEnvCommand(RunContext runContext, List<String> requirements) throws IllegalVariableEvaluationException {
         List<String> renderer = new ArrayList<>();
         var rPackageManager = PackageManagerType.UV.equals(runContext.render(packageManager).as(PackageManagerType.class).orElse(PackageManagerType.UV));
@@ -199,39 +213,8 @@ public class Python extends AbstractBash implements RunnableTask<ScriptOutput> {
     }
 
     @Override
-    protected Map<String, String> finalInputFiles(RunContext runContext) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = super.finalInputFiles(runContext);
-
-        map.put(
-            "kestra.py", IOUtils.toString(
-                Objects.requireNonNull(
-                    Python.class.getClassLoader().getResourceAsStream(
-                        "kestra.py"
-                    )
-                ),
-                Charsets.UTF_8
-            )
-        );
-
-        return map;
-    }
-
-    @Override
-    protected Map<String, String> finalInputFiles(RunContext runContext, Map<String, Object> additionalVar) throws IOException, IllegalVariableEvaluationException {
-        Map<String, String> map = super.finalInputFiles(runContext, additionalVar);
-
-        map.put(
-            "kestra.py", IOUtils.toString(
-                Objects.requireNonNull(
-                    Python.class.getClassLoader().getResourceAsStream(
-                        "kestra.py"
-                    )
-                ),
-                Charsets.UTF_8
-            )
-        );
-
-        return map;
+    protected List<String> helperResources() {
+        return List.of("kestra.py", "kestra_arrow.py");
     }
 
     @Override
@@ -254,10 +237,18 @@ public class Python extends AbstractBash implements RunnableTask<ScriptOutput> {
             additionalVars.put("outputFiles", rOutputsFiles);
         }
 
-        return run(runContext, throwSupplier(() ->
+        AtomicReference<PythonEnvironmentManager> environmentManager = new AtomicReference<>();
+        AtomicReference<ResolvedPythonEnvironment> environment = new AtomicReference<>();
+
+        ScriptOutput output = run(runContext, throwSupplier(() ->
         {
             List<String> renderer = new ArrayList<>();
-            if (this.virtualEnv) {
+            // the input files are already in the working directory
+            if (this.useDependencyCache(runContext)) {
+                environmentManager.set(new PythonEnvironmentManager(runContext, new LegacyPythonPlugin(this), runContext.render(packageManager).as(PackageManagerType.class).orElse(PackageManagerType.PIP)));
+                environment.set(this.resolveEnvironment(runContext, environmentManager.get()));
+                renderer.add(this.cachedVirtualEnvCommand(runContext, environment.get()));
+            } else if (this.virtualEnv) {
                 renderer.add(this.virtualEnvCommand(runContext, requirements));
             } else if (runContext.render(this.exitOnFailed).as(Boolean.class).orElseThrow()) {
                 renderer.add("set -o errexit");
@@ -276,5 +267,100 @@ public class Python extends AbstractBash implements RunnableTask<ScriptOutput> {
 
             return String.join("\n", renderer);
         }));
+
+        if (environment.get() != null && environment.get().packages() != null && !environment.get().cached()) {
+            environmentManager.get().uploadCache(runContext, environment.get().packages());
+        }
+
+        return output;
+    }
+
+    private boolean useDependencyCache(RunContext runContext) throws IllegalVariableEvaluationException {
+        return this.virtualEnv &&
+            this.requirements != null && !this.requirements.isEmpty() &&
+            runContext.render(this.dependencyCacheEnabled).as(Boolean.class).orElse(true) &&
+            // written from the input files, only read by the pip of the virtual env
+            !Files.isRegularFile(this.workingDirectory.resolve("pip.conf"));
+    }
+
+    private ResolvedPythonEnvironment resolveEnvironment(RunContext runContext, PythonEnvironmentManager environmentManager) throws IllegalVariableEvaluationException, IOException {
+        RunnerType runnerType = runContext.render(this.runner).as(RunnerType.class).orElseThrow();
+        Property<String> containerImage = this.dockerOptions != null && this.dockerOptions.getImage() != null ?
+            Property.ofValue(runContext.render(this.dockerOptions.getImage(), additionalVars)) :
+            null;
+
+        return environmentManager.setup(containerImage, null, runnerType);
+    }
+
+    /**
+     * Creates the virtual env like {@link #virtualEnvCommand(RunContext, List)}, with the resolved interpreter so the
+     * cached packages match it, and adds the cached packages to it instead of installing them.
+     */
+    protected String cachedVirtualEnvCommand(RunContext runContext, ResolvedPythonEnvironment environment) throws IllegalVariableEvaluationException {
+        List<String> renderer = new ArrayList<>();
+        var rPackageManager = PackageManagerType.UV.equals(runContext.render(packageManager).as(PackageManagerType.class).orElse(PackageManagerType.UV));
+        String interpreter = RunnerType.PROCESS.equals(runContext.render(this.runner).as(RunnerType.class).orElseThrow()) ?
+            environment.interpreter() :
+            this.pythonPath;
+
+        if (runContext.render(this.exitOnFailed).as(Boolean.class).orElseThrow()) {
+            renderer.add("set -o errexit");
+        }
+
+        renderer.add(interpreter + " -m venv --system-site-packages " + (rPackageManager ? ".venv" : workingDirectory) + " > /dev/null");
+
+        if (environment.packages() != null) {
+            // relative to the working directory, so it works inside containers too
+            Path packages = runContext.workingDir().path().relativize(environment.packages().path());
+            renderer.add("export PYTHONPATH=\"$(pwd)/" + packages + "${PYTHONPATH:+:$PYTHONPATH}\"");
+        }
+
+        return String.join("\n", renderer);
+    }
+
+    /**
+     * Exposes the properties of the legacy task to the {@link PythonEnvironmentManager}.
+     */
+    private record LegacyPythonPlugin(Python task) implements PythonBasedPlugin {
+        @Override
+        public String getType() {
+            return task.getType();
+        }
+
+        @Override
+        public Property<List<String>> getDependencies() {
+            return Property.ofValue(task.getRequirements());
+        }
+
+        @Override
+        public Property<String> getPythonVersion() {
+            return null;
+        }
+
+        @Override
+        public Property<Boolean> getDependencyCacheEnabled() {
+            return task.getDependencyCacheEnabled();
+        }
+
+        @Override
+        public Property<PackageManagerType> getPackageManager() {
+            return task.getPackageManager();
+        }
+
+        @Override
+        public Property<Boolean> getUvAutoInstallEnabled() {
+            // the task has no such setting and never installed uv, it uses the one of the worker like its commands
+            return Property.ofValue(false);
+        }
+
+        @Override
+        public Property<String> getUvInstallerVersion() {
+            return null;
+        }
+
+        @Override
+        public Property<String> getUvInstallerSha256() {
+            return null;
+        }
     }
 }
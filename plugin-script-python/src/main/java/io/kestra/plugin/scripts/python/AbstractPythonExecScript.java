@@ -1,14 +1,17 @@
 package io.kestra.plugin.scripts.python;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.kestra.core.models.property.Property;
 import io.kestra.plugin.scripts.exec.AbstractExecScript;
 import io.kestra.plugin.scripts.python.internals.PackageManagerType;
+import io.kestra.plugin.scripts.python.internals.PreparedPythonEnvironment;
 import io.kestra.plugin.scripts.python.internals.PythonBasedPlugin;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -47,4 +50,23 @@ public abstract class AbstractPythonExecScript extends AbstractExecScript implem
     protected Property<String> uvInstallerVersion;
 
     protected Property<String> uvInstallerSha256;
+
+    // final, so it is not part of the builder nor of the task definition
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final AtomicReference<PreparedPythonEnvironment> preparedEnvironment = new AtomicReference<>();
+
+    /**
+     * Set by the python triggers on the task they run, to reuse the resolved environment across their evaluations.
+     */
+    void setPreparedEnvironment(PreparedPythonEnvironment preparedEnvironment) {
+        this.preparedEnvironment.set(preparedEnvironment);
+    }
+
+    /**
+     * @return the environment kept across the runs of the task, {@code null} when the task is not run by a trigger
+     */
+    protected PreparedPythonEnvironment preparedEnvironment() {
+        return this.preparedEnvironment.get();
+    }
 }
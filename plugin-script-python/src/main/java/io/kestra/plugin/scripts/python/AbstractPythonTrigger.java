@@ -1,24 +1,14 @@
 package io.kestra.plugin.scripts.python;
 
-import io.kestra.core.models.conditions.ConditionContext;
-import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
-import io.kestra.core.models.tasks.RunnableTaskException;
-import io.kestra.core.models.tasks.runners.TaskException;
-import io.kestra.core.models.triggers.*;
-import io.kestra.core.runners.RunContext;
-import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.scripts.exec.AbstractScriptTrigger;
+import io.kestra.plugin.scripts.python.internals.PreparedPythonEnvironment;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
 import io.kestra.core.models.annotations.PluginProperty;
 
 @SuperBuilder
@@ -26,8 +16,7 @@ import io.kestra.core.models.annotations.PluginProperty;
 @EqualsAndHashCode
 @Getter
 @NoArgsConstructor
-public abstract class AbstractPythonTrigger extends AbstractTrigger
-    implements PollingTriggerInterface, TriggerOutput<AbstractPythonTrigger.Output> {
+public abstract class AbstractPythonTrigger extends AbstractScriptTrigger {
 
     protected static final String DEFAULT_IMAGE = "python:3.13-slim";
 
@@ -37,6 +26,8 @@ public abstract class AbstractPythonTrigger extends AbstractTrigger
             Condition evaluated after each execution. The trigger emits only when it matches.
             'exit N' compares the exit code, otherwise the string is used as a regex
             (or substring fallback) against emitted vars (from ::{"outputs":...}::) and failure logs.
+            '$.path.to.key' matches when that var is set (and not false), 'key=value' or '$.path.to.key=value' compares a var, and regexes are matched against each 'path=value' leaf of the vars, then, when they contain ',', '{' or '}', against the whole map.
+            'changed' or 'changed $.path.to.key' matches when the vars, or that var, differ from the previous poll; with `changeFile`, when the content of that file differs. The first poll never matches.
             """
     )
     @PluginProperty(group = "advanced")
@@ -61,152 +52,23 @@ public abstract class AbstractPythonTrigger extends AbstractTrigger
     @PluginProperty(group = "advanced")
     protected Property<Boolean> edge = Property.ofValue(true);
 
+    @Schema(
+        title = "Python dependencies to install",
+        description = """
+            Installed before the first poll, then kept on the worker and reused by the following polls of this trigger.
+            The environment is resolved again only when the dependencies, the container image or the runner change.
+            """
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<String>> dependencies;
+
     @Builder.Default
     @Getter(AccessLevel.NONE)
-    private final AtomicBoolean lastMatched = new AtomicBoolean(false);
-
-    protected abstract ScriptOutput executeTask(RunContext runContext) throws Exception;
-
-    @Override
-    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
-        RunContext runContext = conditionContext.getRunContext();
-        boolean edgeEnabled = runContext.render(this.edge).as(Boolean.class).orElse(true);
-
-        Output output;
-        try {
-            output = runOnce(runContext);
-        } catch (Exception e) {
-            runContext.logger().warn("Trigger evaluation failed, returning empty result to avoid blocking the scheduler", e);
-            return Optional.empty();
-        }
-
-        boolean matched = matchesCondition(output);
-
-        boolean emit = edgeEnabled
-            ? (!lastMatched.getAndSet(matched) && matched)
-            : matched;
-
-        if (!emit) {
-            return Optional.empty();
-        }
-
-        return Optional.of(TriggerService.generateExecution(this, conditionContext, context, output));
-    }
-
-    private Output runOnce(RunContext runContext) throws Exception {
-        String renderedCondition = runContext.render(this.exitCondition)
-            .as(String.class)
-            .orElse("");
-
-        try {
-            ScriptOutput taskOutput = executeTask(runContext);
-
-            return new Output(
-                Instant.now(),
-                renderedCondition,
-                safeExitCode(taskOutput),
-                safeVars(taskOutput)
-            );
-        } catch (RunnableTaskException e) {
-            ExtractedFailure failure = extractFailure(e);
-
-            return new Output(
-                Instant.now(),
-                renderedCondition,
-                failure.exitCode,
-                null
-            );
-        }
-    }
-
-    private boolean matchesCondition(Output out) {
-        String cond = out.getCondition() == null ? "" : out.getCondition().trim();
-
-        Matcher exitMatcher = Pattern
-            .compile("^\\s*exit\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE)
-            .matcher(cond);
-
-        if (exitMatcher.matches()) {
-            int expected = Integer.parseInt(exitMatcher.group(1));
-            return out.getExitCode() != null && out.getExitCode() == expected;
-        }
-
-        String haystack = buildHaystack(out);
-        if (haystack.isEmpty() || cond.isEmpty()) {
-            return false;
-        }
-
-        try {
-            return Pattern.compile(cond).matcher(haystack).find();
-        } catch (Exception e) {
-            return haystack.contains(cond);
-        }
-    }
-
-    private String buildHaystack(Output out) {
-        if (out.getVars() == null || out.getVars().isEmpty()) {
-            return "";
-        }
-        return out.getVars().toString();
-    }
-
-    private Integer safeExitCode(ScriptOutput output) {
-        try {
-            return output.getExitCode();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private Map<String, Object> safeVars(ScriptOutput output) {
-        try {
-            return output.getVars();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private record ExtractedFailure(Integer exitCode) {}
-
-    private ExtractedFailure extractFailure(RunnableTaskException e) {
-        Integer exitCode = null;
-
-        Throwable cur = e.getCause();
-        while (cur != null) {
-            if (cur instanceof TaskException te) {
-                exitCode = te.getExitCode();
-                break;
-            }
-            cur = cur.getCause();
-        }
-
-        return new ExtractedFailure(exitCode);
-    }
-
-    @Data
-    @AllArgsConstructor
-    public static class Output implements io.kestra.core.models.tasks.Output {
-
-        @Schema(title = "Timestamp of the event that fired the trigger")
-
-        private Instant timestamp;
-
-        @Schema(
-            title = "Rendered condition",
-            description = "Rendered value of the exitCondition property for this poll."
-        )
-        private String condition;
-
-        @Schema(
-            title = "Exit code",
-            description = "Exit code returned by the Python process (may be null if not available)."
-        )
-        private Integer exitCode;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final PreparedPythonEnvironment preparedEnvironment = new PreparedPythonEnvironment();
 
-        @Schema(
-            title = "Script vars",
-            description = "Vars produced by the task (e.g. via ::{\"outputs\":{...}}:: convention)."
-        )
-        private Map<String, Object> vars;
+    protected PreparedPythonEnvironment preparedEnvironment() {
+        return this.preparedEnvironment;
     }
 }
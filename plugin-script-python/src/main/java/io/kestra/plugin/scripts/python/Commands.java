@@ -329,7 +329,7 @@ public class Commands extends AbstractPythonExecScript implements RunnableTask<S
 
         PackageManagerType resolvedPackageManager = runContext.render(this.packageManager).as(PackageManagerType.class).orElse(PackageManagerType.PIP);
         PythonEnvironmentManager pythonEnvironmentManager = new PythonEnvironmentManager(runContext, this, resolvedPackageManager);
-        ResolvedPythonEnvironment pythonEnvironment = pythonEnvironmentManager.setup(containerImage, taskRunner, runner);
+        ResolvedPythonEnvironment pythonEnvironment = pythonEnvironmentManager.setup(containerImage, taskRunner, runner, this.preparedEnvironment());
 
         Map<String, String> env = new HashMap<>();
         env.put("PYTHONUNBUFFERED", "true");
@@ -3,8 +3,8 @@ package io.kestra.plugin.scripts.python;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
-import io.kestra.plugin.scripts.exec.TriggerRunContext;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -74,14 +74,17 @@ public class CommandsTrigger extends AbstractPythonTrigger {
     protected Property<List<String>> commands;
 
     @Override
-    protected ScriptOutput executeTask(RunContext runContext) throws Exception {
+    protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception {
         Commands task = Commands.builder()
             .id(this.getId())
             .type(Commands.class.getName())
             .containerImage(this.containerImage)
             .commands(this.commands)
+            .dependencies(this.dependencies)
+            .outputFiles(this.changeFileOutputs(runContext))
             .build();
+        task.setPreparedEnvironment(this.preparedEnvironment());
 
-        return task.run(TriggerRunContext.forEmbeddedTask(runContext, task));
+        return task;
     }
 }
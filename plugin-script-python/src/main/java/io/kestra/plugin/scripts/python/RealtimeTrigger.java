@@ -0,0 +1,71 @@
+package io.kestra.plugin.scripts.python;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.plugin.scripts.exec.AbstractRealtimeScriptTrigger;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger on events streamed by a long-running Python script",
+    description = "Starts the Python script once (default image python:3.13-slim) and keeps it running. Each ::{\"outputs\":...}:: line it prints is an event; events matching the optional condition emit an execution immediately, without starting a process or container per poll. The script is restarted after restartDelay if it exits."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Emit an execution for each event streamed by a Python script.",
+            full = true,
+            code = """
+                id: python_realtime_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.scripts.python.RealtimeTrigger
+                    script: |
+                      import json, time, random
+
+                      while True:
+                          temperature = random.uniform(15, 35)
+                          if temperature > 30:
+                              print("::" + json.dumps({"outputs": {"temperature": temperature}}) + "::", flush=True)
+                          time.sleep(0.5)
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "Temperature {{ trigger.vars.temperature }}"
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractRealtimeScriptTrigger {
+    private static final String DEFAULT_IMAGE = "python:3.13-slim";
+
+    @Schema(
+        title = "Container image for the Python runtime",
+        description = "Defaults to 'python:3.13-slim'; only used by the Docker task runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<String> containerImage = Property.ofValue(DEFAULT_IMAGE);
+
+    @Override
+    protected String scriptExtension() {
+        return ".py";
+    }
+
+    @Override
+    protected String runCommand(String scriptPath) {
+        return "python " + scriptPath;
+    }
+}
@@ -1,9 +1,12 @@
 package io.kestra.plugin.scripts.python;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.apache.commons.lang3.SystemUtils;
 
@@ -20,6 +23,7 @@ import io.kestra.core.models.tasks.runners.TargetOS;
 import io.kestra.core.models.tasks.runners.TaskRunner;
 import io.kestra.core.runners.FilesService;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.tasks.scripts.HelperResources;
 import io.kestra.plugin.core.runner.Process;
 import io.kestra.plugin.scripts.exec.scripts.models.DockerOptions;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
@@ -29,6 +33,7 @@ import io.kestra.plugin.scripts.python.internals.PythonEnvironmentManager.Resolv
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -304,6 +309,41 @@ import lombok.experimental.SuperBuilder;
                       - "Total Marks: {{ outputs.generate_output.vars.total_marks }}"
                       - "Average Marks: {{ outputs.generate_output.vars.average_marks }}"
                 """
+        ),
+        @Example(
+            full = true,
+            title = "Hand a table over to the next Python task as an Arrow IPC file, read back through a memory map.",
+            code = """
+                id: python_arrow
+                namespace: company.team
+
+                tasks:
+                  - id: extract
+                    type: io.kestra.plugin.scripts.python.Script
+                    dependencies:
+                      - pandas
+                      - pyarrow
+                    arrowOutputs:
+                      - orders
+                    script: |
+                      import pandas as pd
+                      from kestra_arrow import write_arrow
+
+                      df = pd.read_csv("https://huggingface.co/datasets/kestra/datasets/raw/main/csv/orders.csv")
+                      write_arrow("orders", df)
+
+                  - id: transform
+                    type: io.kestra.plugin.scripts.python.Script
+                    dependencies:
+                      - pyarrow
+                    arrowInputs:
+                      orders: "{{ outputs.extract.outputFiles['orders.arrow'] }}"
+                    script: |
+                      from kestra_arrow import read_arrow
+
+                      orders = read_arrow("orders")
+                      print(orders.num_rows)
+                """
         )
     },
     metrics = {
@@ -312,6 +352,8 @@ import lombok.experimental.SuperBuilder;
     }
 )
 public class Script extends AbstractPythonExecScript implements RunnableTask<ScriptOutput> {
+    private static final String ARROW_HELPER = "kestra_arrow.py";
+    private static final String ARROW_EXTENSION = ".arrow";
 
     @Schema(
         title = "Inline Python script",
@@ -321,6 +363,44 @@ public class Script extends AbstractPythonExecScript implements RunnableTask<Scr
     @PluginProperty(language = MonacoLanguages.PYTHON, group = "main")
     protected Property<String> script;
 
+    @Schema(
+        title = "Run the script through a worker-local Python fork server",
+        description = """
+            When enabled, the script is not started by a fresh interpreter: a fork server, started once per worker and per resolved environment, pre-imports `forkServerModules` and forks a child for each run.
+            The child gets its own working directory, environment, PYTHONPATH and standard streams, so runs stay isolated while skipping the interpreter start-up and import cost.
+            Only supported with the Process task runner on Linux or macOS workers; other runners fall back to a regular interpreter launch. A virtualenv activated in `beforeCommands` is not used by the fork server.
+            """
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> forkServer = Property.ofValue(false);
+
+    @Schema(
+        title = "Modules pre-imported by the fork server",
+        description = "Only used when `forkServer` is enabled, e.g. `pandas` or `numpy`. Modules that fail to import are logged by the fork server and skipped."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<String>> forkServerModules;
+
+    @Schema(
+        title = "Tables produced by the script as Arrow IPC files",
+        description = """
+            Each name `x` expects the script to write `x.arrow` in its working directory, typically with `write_arrow("x", data)` from the `kestra_arrow` helper module available to the script.
+            The files are uploaded to internal storage like `outputFiles`, under `outputFiles['x.arrow']`.
+            """
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<String>> arrowOutputs;
+
+    @Schema(
+        title = "Arrow IPC files staged for the script",
+        description = """
+            Map of table name to internal storage URI, typically the `outputFiles['x.arrow']` of a previous task. Each file is staged as `<name>.arrow` in the working directory and can be read with `read_arrow("<name>")` from the `kestra_arrow` helper module, which memory-maps the file instead of parsing it.
+            """
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Map<String, String>> arrowInputs;
+
     @Override
     protected DockerOptions injectDefaults(RunContext runContext, DockerOptions original) throws IllegalVariableEvaluationException {
         var builder = original.toBuilder();
@@ -350,12 +430,20 @@ public class Script extends AbstractPythonExecScript implements RunnableTask<Scr
             relativeScriptPath.toString(),
             compatibilityPrelude + commands.render(runContext, this.script)
         );
+        this.arrowHandOff(runContext, commands, inputFiles);
         commands = commands.withInputFiles(inputFiles);
 
+        List<String> arrowOutputs = runContext.render(this.arrowOutputs).asList(String.class);
+        if (!arrowOutputs.isEmpty()) {
+            List<String> outputFiles = new ArrayList<>(Optional.ofNullable(commands.getOutputFiles()).orElse(List.of()));
+            arrowOutputs.forEach(name -> outputFiles.add(name + ARROW_EXTENSION));
+            commands = commands.withOutputFiles(outputFiles);
+        }
+
         TargetOS os = runContext.render(this.targetOS).as(TargetOS.class).orElse(null);
 
         PythonEnvironmentManager pythonEnvironmentManager = new PythonEnvironmentManager(runContext, this);
-        ResolvedPythonEnvironment pythonEnvironment = pythonEnvironmentManager.setup(containerImage, taskRunner, runner);
+        ResolvedPythonEnvironment pythonEnvironment = pythonEnvironmentManager.setup(containerImage, taskRunner, runner, this.preparedEnvironment());
 
         Map<String, String> env = new HashMap<>();
         env.put("PYTHONUNBUFFERED", "true");
@@ -373,6 +461,15 @@ public class Script extends AbstractPythonExecScript implements RunnableTask<Scr
         var scriptPath = commands.getTaskRunner().toAbsolutePath(runContext, commands, relativeScriptPath.toString(), os);
         var runCommand = buildRunCommand(os, commands.getTaskRunner(), pythonEnvironment, scriptPath);
 
+        if (runContext.render(this.forkServer).as(Boolean.class).orElse(false)) {
+            if (commands.getTaskRunner() instanceof Process && !isWindowsTarget(os, commands.getTaskRunner())) {
+                List<String> modules = runContext.render(this.forkServerModules).asList(String.class);
+                runCommand = pythonEnvironmentManager.forkServer(pythonEnvironment, modules).clientCommand(pythonEnvironment.interpreter(), scriptPath);
+            } else {
+                runContext.logger().warn("The Python fork server is only supported with the Process task runner on a POSIX worker, falling back to a regular interpreter launch");
+            }
+        }
+
         ScriptOutput output = commands
             .addEnv(env)
             .withInterpreter(this.interpreter)
@@ -389,6 +486,24 @@ public class Script extends AbstractPythonExecScript implements RunnableTask<Scr
         return output;
     }
 
+    /**
+     * Stages the Arrow inputs and the {@code kestra_arrow} helper module when the script exchanges Arrow files.
+     * The helper sits next to the script, so it is importable without being a dependency of the task.
+     */
+    private void arrowHandOff(RunContext runContext, CommandsWrapper commands, Map<String, String> inputFiles) throws Exception {
+        Map<String, String> arrowInputs = runContext.render(this.arrowInputs).asMap(String.class, String.class);
+
+        if (arrowInputs.isEmpty() && this.arrowOutputs == null) {
+            return;
+        }
+
+        Map<String, String> arrowFiles = new HashMap<>();
+        arrowInputs.forEach((name, uri) -> arrowFiles.put(name + ARROW_EXTENSION, uri));
+        inputFiles.putAll(FilesService.inputFiles(runContext, commands.getTaskRunner().additionalVars(runContext, commands), arrowFiles));
+
+        inputFiles.put(ARROW_HELPER, new String(HelperResources.load(Script.class, ARROW_HELPER), StandardCharsets.UTF_8));
+    }
+
     /**
      * Builds the shell command that invokes the script.
      * <p>
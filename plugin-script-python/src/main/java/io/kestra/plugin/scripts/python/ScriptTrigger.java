@@ -3,8 +3,8 @@ package io.kestra.plugin.scripts.python;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
-import io.kestra.plugin.scripts.exec.TriggerRunContext;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -70,14 +70,17 @@ public class ScriptTrigger extends AbstractPythonTrigger {
     protected Property<String> script;
 
     @Override
-    protected ScriptOutput executeTask(RunContext runContext) throws Exception {
+    protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception {
         Script task = Script.builder()
             .id(this.getId())
             .type(Script.class.getName())
             .containerImage(this.containerImage)
             .script(this.script)
+            .dependencies(this.dependencies)
+            .outputFiles(this.changeFileOutputs(runContext))
             .build();
+        task.setPreparedEnvironment(this.preparedEnvironment());
 
-        return task.run(TriggerRunContext.forEmbeddedTask(runContext, task));
+        return task;
     }
 }
@@ -0,0 +1,231 @@
+package io.kestra.plugin.scripts.python.internals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+import io.kestra.core.runners.WorkingDir;
+import io.kestra.plugin.scripts.python.internals.PythonEnvironmentManager.ResolvedPythonEnvironment;
+
+/**
+ * Python environment kept alive across the evaluations of a single trigger instance.
+ * <p>
+ * The first evaluation resolves the environment as usual (cache download, extraction or installation), then keeps
+ * a worker-local copy of the packages, outside the working directory that is deleted once the evaluation ends.
+ * Following evaluations with the same inputs (dependencies, python version, container image, runner) skip the
+ * resolution altogether: the packages are hard-linked into the new working directory, falling back to a copy when
+ * hard links are not supported.
+ * <p>
+ * The copies are named after the key of their inputs, so the triggers with the same inputs share one copy, and a
+ * worker restart reuses the copies of the previous run instead of leaving them behind. A copy is never modified once
+ * prepared; the copies unused for {@link #UNUSED_AFTER} are deleted whenever a new one is kept.
+ */
+public final class PreparedPythonEnvironment {
+    static final Duration UNUSED_AFTER = Duration.ofDays(7);
+
+    private static final String PREPARED_ENVIRONMENTS_DIR = "python-prepared-envs";
+    private static final String PACKAGES_DIR = "lib";
+    private static final String WORKING_DIR_PACKAGES = ".kestra_prepared_python_lib";
+
+    private Entry entry;
+
+    /**
+     * Computes the key identifying the inputs the environment was resolved from.
+     *
+     * @param parts The rendered inputs, {@code null} values are allowed.
+     * @return the key.
+     */
+    public static String key(final Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+
+    /**
+     * Restores the kept environment into the given working directory if it was resolved from the same inputs.
+     *
+     * @param key The key of the current inputs.
+     * @param workingDir The working directory of the current evaluation.
+     * @return the restored environment, or empty if it must be resolved again.
+     */
+    public synchronized Optional<ResolvedPythonEnvironment> restore(final String key, final WorkingDir workingDir) throws IOException {
+        if (entry == null || !entry.key().equals(key)) {
+            return Optional.empty();
+        }
+
+        if (entry.packages() == null) {
+            return Optional.of(new ResolvedPythonEnvironment(true, null, entry.interpreter()));
+        }
+
+        if (!Files.isDirectory(entry.packages().path())) {
+            // deleted as unused, e.g. for a trigger polling less than once per UNUSED_AFTER
+            entry = null;
+            return Optional.empty();
+        }
+        markUsed(entry.directory());
+
+        Path target = workingDir.resolve(Path.of(WORKING_DIR_PACKAGES));
+        linkTree(entry.packages().path(), target);
+
+        ResolvedPythonPackages packages = new ResolvedPythonPackages(target, entry.packages().lockFile(), entry.packages().hash(), entry.packages().version());
+        return Optional.of(new ResolvedPythonEnvironment(true, packages, entry.interpreter()));
+    }
+
+    /**
+     * Keeps the freshly resolved environment for the next evaluations, replacing the previous one.
+     *
+     * @param logger The logger instance.
+     * @param key The key of the inputs the environment was resolved from.
+     * @param localCacheDir The worker-local directory that outlives the working directories.
+     * @param environment The resolved environment.
+     */
+    public synchronized void keep(final Logger logger, final String key, final Path localCacheDir, final ResolvedPythonEnvironment environment) throws IOException {
+        Path root = localCacheDir.resolve(PREPARED_ENVIRONMENTS_DIR);
+
+        Path directory = null;
+        ResolvedPythonPackages packages = null;
+        if (environment.packages() != null) {
+            directory = root.resolve(key);
+            if (!Files.isDirectory(directory)) {
+                prepare(environment.packages(), root, directory);
+            }
+            markUsed(directory);
+
+            packages = new ResolvedPythonPackages(
+                directory.resolve(PACKAGES_DIR),
+                directory.resolve(ResolvedPythonPackages.REQUIREMENTS_TXT),
+                environment.packages().hash(),
+                environment.packages().version()
+            );
+        }
+
+        entry = new Entry(key, directory, packages, environment.interpreter());
+
+        deleteUnused(logger, root, directory);
+    }
+
+    private static void prepare(final ResolvedPythonPackages resolved, final Path root, final Path directory) throws IOException {
+        // prepared aside then renamed, so that no trigger ever links a partial copy
+        Path temp = root.resolve(directory.getFileName() + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            copyTree(resolved.path(), temp.resolve(PACKAGES_DIR));
+            Files.copy(resolved.lockFile(), temp.resolve(ResolvedPythonPackages.REQUIREMENTS_TXT));
+            Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // prepared meanwhile by another trigger with the same inputs
+            if (!Files.isDirectory(directory)) {
+                throw e;
+            }
+        } finally {
+            delete(temp);
+        }
+    }
+
+    private static void markUsed(final Path directory) {
+        try {
+            Files.setLastModifiedTime(directory, FileTime.from(Instant.now()));
+        } catch (IOException ignored) {
+            // at worst, the copy is deleted and prepared again
+        }
+    }
+
+    private static void deleteUnused(final Logger logger, final Path root, final Path current) {
+        Instant threshold = Instant.now().minus(UNUSED_AFTER);
+
+        try (Stream<Path> children = Files.list(root)) {
+            for (Path child : children.toList()) {
+                if (child.equals(current) || Files.getLastModifiedTime(child).toInstant().isAfter(threshold)) {
+                    continue;
+                }
+
+                logger.debug("Deleting the prepared python environment '{}', unused for more than {}", child.getFileName(), UNUSED_AFTER);
+                delete(child);
+            }
+        } catch (IOException ignored) {
+            // best effort, the copies are only worker-local disk usage
+        }
+    }
+
+    private static void linkTree(final Path source, final Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path link = target.resolve(source.relativize(file).toString());
+                try {
+                    Files.createLink(link, file);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(file, link, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void copyTree(final Path source, final Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(final Path path) {
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(paths::add);
+        } catch (IOException ignored) {
+            // already gone
+        }
+
+        for (Path file : paths) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort, the directory is only worker-local disk usage
+            }
+        }
+    }
+
+    private record Entry(String key, Path directory, ResolvedPythonPackages packages, String interpreter) {}
+}
@@ -61,10 +61,50 @@ public class PythonEnvironmentManager {
 
     public ResolvedPythonEnvironment setup(final Property<String> containerImage, final TaskRunner<?> taskRunner, final RunnerType runnerType)
         throws IllegalVariableEvaluationException, IOException {
+        return setup(containerImage, taskRunner, runnerType, null);
+    }
+
+    /**
+     * Sets up the python environment, reusing the given prepared environment when it was resolved from the same inputs.
+     *
+     * @param prepared The environment kept across runs, may be {@code null}.
+     */
+    public ResolvedPythonEnvironment setup(final Property<String> containerImage, final TaskRunner<?> taskRunner, final RunnerType runnerType,
+        final PreparedPythonEnvironment prepared) throws IllegalVariableEvaluationException, IOException {
         List<String> requirements = new ArrayList<>(runContext.render(plugin.getDependencies()).asList(String.class));
 
         final Path localCacheDir = getLocalCacheDir();
 
+        String preparedKey = null;
+        if (prepared != null) {
+            preparedKey = PreparedPythonEnvironment.key(
+                requirements.stream().sorted().toList(),
+                pythonVersion,
+                packageManager,
+                runContext.render(containerImage).as(String.class).orElse(null),
+                taskRunner != null ? taskRunner.getType() : null,
+                runnerType
+            );
+
+            Optional<ResolvedPythonEnvironment> restored = prepared.restore(preparedKey, runContext.workingDir());
+            if (restored.isPresent()) {
+                runContext.logger().debug("Reusing the prepared python environment");
+                return restored.get();
+            }
+        }
+
+        ResolvedPythonEnvironment environment = resolve(containerImage, taskRunner, runnerType, requirements, localCacheDir);
+
+        if (prepared != null) {
+            prepared.keep(runContext.logger(), preparedKey, localCacheDir, environment);
+        }
+
+        return environment;
+    }
+
+    private ResolvedPythonEnvironment resolve(final Property<String> containerImage, final TaskRunner<?> taskRunner, final RunnerType runnerType,
+        final List<String> requirements, final Path localCacheDir) throws IllegalVariableEvaluationException, IOException {
+
         final PythonDependenciesResolver resolver = new PythonDependenciesResolver(
             runContext.logger(),
             runContext.workingDir(),
@@ -148,6 +188,17 @@ public class PythonEnvironmentManager {
         return runContext.workingDir().path().getParent();
     }
 
+    /**
+     * Gets the worker-local fork server for the given resolved environment, starting it if needed.
+     *
+     * @param environment The resolved python environment.
+     * @param modules The modules to pre-import in the fork server.
+     * @return the {@link PythonForkServer}.
+     */
+    public PythonForkServer forkServer(final ResolvedPythonEnvironment environment, final List<String> modules) {
+        return PythonForkServer.getOrStart(runContext.logger(), getLocalCacheDir(), environment.interpreter(), environment.packages(), modules);
+    }
+
     public boolean isCacheEnabled() {
         return isDependencyCacheEnabled;
     }
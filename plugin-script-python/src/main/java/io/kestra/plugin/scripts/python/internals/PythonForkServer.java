@@ -0,0 +1,219 @@
+package io.kestra.plugin.scripts.python.internals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+
+/**
+ * Worker-local Python fork server.
+ * <p>
+ * A fork server is a long-running Python process that pre-imports a list of modules once, then forks
+ * a child for each task that connects to it (see {@code kestra_forkserver.py}). The task still runs in
+ * its own process, with its own working directory, environment and PYTHONPATH, but without paying the
+ * interpreter start-up and import cost on every run.
+ * <p>
+ * Servers are keyed by interpreter, dependency hash and pre-imported modules, so tasks only share a
+ * server when they would have resolved the exact same environment. Since the task connects to the
+ * server through a Unix domain socket on the worker's filesystem, this is only usable with the
+ * {@code Process} task runner.
+ */
+public final class PythonForkServer {
+    static final String LAUNCHER_RESOURCE = "kestra_forkserver.py";
+
+    private static final String FORK_SERVER_DIR = "python-forkserver";
+    private static final String SITE_PACKAGES_DIR = "site";
+    private static final String SOCKET_FILE = "s.sock";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long STARTUP_POLL_MS = 50;
+
+    private static final Map<String, PythonForkServer> SERVERS = new ConcurrentHashMap<>();
+    private static final Map<String, Object> STARTUP_LOCKS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+            () -> SERVERS.values().forEach(server -> server.process.destroy()),
+            "python-forkserver-shutdown"
+        ));
+    }
+
+    private final Process process;
+    private final Path launcher;
+    private final Path socket;
+
+    private PythonForkServer(final Process process, final Path launcher, final Path socket) {
+        this.process = process;
+        this.launcher = launcher;
+        this.socket = socket;
+    }
+
+    /**
+     * Gets the running fork server for the given environment, starting a new one if needed.
+     *
+     * @param logger The logger instance.
+     * @param localCacheDir The worker-local directory that outlives task working directories.
+     * @param interpreter The resolved python interpreter.
+     * @param packages The resolved python packages, may be {@code null}.
+     * @param modules The modules to pre-import.
+     * @return the running {@link PythonForkServer}.
+     */
+    public static PythonForkServer getOrStart(final Logger logger,
+        final Path localCacheDir,
+        final String interpreter,
+        final ResolvedPythonPackages packages,
+        final List<String> modules) {
+        final String key = serverKey(interpreter, packages, modules);
+
+        PythonForkServer running = SERVERS.get(key);
+        if (running != null && running.isAlive()) {
+            return running;
+        }
+
+        // a lock per environment, so that starting a server never blocks the tasks of the other environments
+        synchronized (STARTUP_LOCKS.computeIfAbsent(key, k -> new Object())) {
+            PythonForkServer existing = SERVERS.get(key);
+            if (existing != null && existing.isAlive()) {
+                return existing;
+            }
+
+            if (existing != null) {
+                logger.warn("Python fork server '{}' is not running anymore, restarting it", key);
+            }
+
+            try {
+                PythonForkServer started = start(logger, localCacheDir.resolve(FORK_SERVER_DIR).resolve(key), interpreter, packages, modules);
+                SERVERS.put(key, started);
+                return started;
+            } catch (IOException e) {
+                throw new KestraRuntimeException("Unable to start the Python fork server: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KestraRuntimeException("Interrupted while starting the Python fork server", e);
+            }
+        }
+    }
+
+    /**
+     * Builds the shell command that runs the given script as a child of this fork server.
+     *
+     * @param interpreter The python interpreter used to run the lightweight client.
+     * @param scriptPath The absolute path of the script to run.
+     * @return the command.
+     */
+    public String clientCommand(final String interpreter, final String scriptPath) {
+        return String.join(" ", interpreter, launcher.toString(), "run", socket.toString(), scriptPath);
+    }
+
+    private boolean isAlive() {
+        return process.isAlive() && Files.exists(socket);
+    }
+
+    private static PythonForkServer start(final Logger logger,
+        final Path serverDir,
+        final String interpreter,
+        final ResolvedPythonPackages packages,
+        final List<String> modules) throws IOException, InterruptedException {
+        final long start = System.currentTimeMillis();
+
+        Files.createDirectories(serverDir);
+
+        Path launcher = serverDir.resolve(LAUNCHER_RESOURCE);
+        try (InputStream resource = Objects.requireNonNull(PythonForkServer.class.getClassLoader().getResourceAsStream(LAUNCHER_RESOURCE))) {
+            Files.copy(resource, launcher, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Path socket = serverDir.resolve(SOCKET_FILE);
+        Files.deleteIfExists(socket);
+
+        List<String> command = new ArrayList<>(List.of(interpreter, launcher.toString(), "serve", socket.toString()));
+        command.addAll(modules);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(serverDir.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(serverDir.resolve("server.log").toFile());
+
+        // the task working directory (and the packages installed in it) is deleted once the task ends,
+        // so the server imports from its own copy of the packages
+        if (packages != null) {
+            Path site = serverDir.resolve(SITE_PACKAGES_DIR);
+            if (!Files.exists(site)) {
+                copyTree(packages.path(), site);
+            }
+            builder.environment().put("PYTHONPATH", site.toString());
+        }
+        builder.environment().put("PYTHONUNBUFFERED", "true");
+
+        logger.debug("Starting Python fork server with command: {}", String.join(" ", command));
+        Process process = builder.start();
+
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT.toMillis();
+        while (!Files.exists(socket)) {
+            if (!process.isAlive()) {
+                throw new IOException("Python fork server exited with code " + process.exitValue() + ", see " + serverDir.resolve("server.log"));
+            }
+            if (System.currentTimeMillis() > deadline) {
+                process.destroyForcibly();
+                throw new IOException("Python fork server did not start within " + STARTUP_TIMEOUT);
+            }
+            Thread.sleep(STARTUP_POLL_MS);
+        }
+
+        logger.info("Python fork server started in {}ms, pre-imported modules: {}", System.currentTimeMillis() - start, modules);
+
+        return new PythonForkServer(process, launcher, socket);
+    }
+
+    private static String serverKey(final String interpreter, final ResolvedPythonPackages packages, final List<String> modules) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            List<String> parts = new ArrayList<>(List.of(interpreter, packages != null ? packages.hash() : ""));
+            parts.addAll(modules);
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                // separated, so that ["ab", "c"] and ["a", "bc"] don't give the same key
+                digest.update((byte) 0);
+            }
+            // keep it short: Unix domain socket paths are limited to ~100 characters
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+
+    private static void copyTree(final Path source, final Path target) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(tmp.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, tmp.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,26 +1,107 @@
+import atexit
+import bisect
+import functools
 import json
-from datetime import datetime
+import os
+import random
+import threading
+import time
 
 class Kestra:
+    # when the worker advertises a side channel, outputs & metrics are written there in batches
+    # instead of being printed on stdout, which is then only used for logs
+    _side_channel = os.path.abspath(os.environ["KESTRA_SIDE_CHANNEL"]) if os.environ.get("KESTRA_SIDE_CHANNEL") else None
+    _buffer = []
+    _buffer_size = 1000
+
+    # metrics are aggregated client-side and flushed periodically and at exit, so the cost on the
+    # worker stays constant whatever the number of calls
+    _flush_interval = float(os.environ.get("KESTRA_METRICS_FLUSH_INTERVAL", "10"))
+    _last_flush = time.monotonic()
+    _lock = threading.RLock()
+    _counters = {}
+    _timers = []
+    _histograms = {}
+    _histogram_buckets = None
+    _histogram_percentiles = ()
+
+    DEFAULT_HISTOGRAM_BUCKETS = (0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60)
+
     def __init__(self):
         pass
 
     @staticmethod
     def _send(map):
-        print("::" + json.dumps(map) + "::")
+        if Kestra._side_channel is None:
+            print("::" + json.dumps(map) + "::")
+            return
+
+        with Kestra._lock:
+            Kestra._buffer.append(json.dumps(map))
+            if len(Kestra._buffer) >= Kestra._buffer_size:
+                Kestra._flush_channel()
 
     @staticmethod
-    def _metrics(name, type, value, tags=None):
-        Kestra._send({
-            "metrics": [
-                {
-                    "name": name,
-                    "type": type,
-                    "value": value,
-                    "tags": tags or {}
-                }
-            ]
-        })
+    def _flush_channel():
+        if Kestra._side_channel is None or not Kestra._buffer:
+            return
+
+        with open(Kestra._side_channel, "a", encoding="utf-8") as channel:
+            channel.write("\n".join(Kestra._buffer) + "\n")
+        Kestra._buffer = []
+
+    @staticmethod
+    def flush():
+        with Kestra._lock:
+            metrics = []
+
+            for (name, _), (value, tags) in Kestra._counters.items():
+                metrics.append(Kestra._metric(name, "counter", value, tags))
+
+            for (name, _), histogram in Kestra._histograms.items():
+                metrics.extend(histogram.metrics(name))
+
+            metrics.extend(Kestra._timers)
+
+            Kestra._counters = {}
+            Kestra._histograms = {}
+            Kestra._timers = []
+            Kestra._last_flush = time.monotonic()
+
+            if metrics:
+                Kestra._send({"metrics": metrics})
+            Kestra._flush_channel()
+
+    @staticmethod
+    def _maybe_flush():
+        if time.monotonic() - Kestra._last_flush >= Kestra._flush_interval:
+            Kestra.flush()
+
+    @staticmethod
+    def _metric(name, type, value, tags=None):
+        return {
+            "name": name,
+            "type": type,
+            "value": value,
+            "tags": tags or {}
+        }
+
+    @staticmethod
+    def _key(name, tags):
+        return name, tuple(sorted((tags or {}).items()))
+
+    @staticmethod
+    def histogram_timers(buckets=None, percentiles=None):
+        """
+        Aggregates timers into histograms instead of sending one metric per call.
+        Each flush sends, per timer name and tags, the total duration, the min and max durations,
+        the number of calls, and the number of calls per bucket (upper bounds in seconds).
+        When percentiles are given (e.g. [0.5, 0.9, 0.99]), the matching durations are also sent,
+        computed on a bounded random sample of the calls.
+        """
+        with Kestra._lock:
+            Kestra._histogram_buckets = sorted(buckets or Kestra.DEFAULT_HISTOGRAM_BUCKETS)
+            Kestra._histogram_percentiles = tuple(percentiles or ())
 
     @staticmethod
     def outputs(map):
@@ -28,15 +109,142 @@ class Kestra:
             "outputs": map
         })
 
+    @staticmethod
+    def write_arrow(name, data, compression=None):
+        """
+        Writes a table as '<name>.arrow' (Arrow IPC), see kestra_arrow.write_arrow.
+        """
+        from kestra_arrow import write_arrow
+        return write_arrow(name, data, compression)
+
+    @staticmethod
+    def read_arrow(name):
+        """
+        Reads '<name>.arrow' through a memory map, see kestra_arrow.read_arrow.
+        """
+        from kestra_arrow import read_arrow
+        return read_arrow(name)
+
     @staticmethod
     def counter(name, value, tags=None):
-        Kestra._metrics(name, "counter", value, tags)
+        with Kestra._lock:
+            key = Kestra._key(name, tags)
+            current = Kestra._counters.get(key)
+            Kestra._counters[key] = (value + current[0] if current else value, tags)
+            Kestra._maybe_flush()
 
     @staticmethod
     def timer(name, duration, tags=None):
+        """
+        Sends a timer metric, in seconds. If duration is a callable, it is called and timed, and its
+        result is returned.
+        """
         if callable(duration):
-            start = datetime.now()
-            duration()
-            Kestra._metrics(name, "timer", (datetime.now().microsecond - start.microsecond) / 1000, tags)
+            with Kestra.timed(name, tags):
+                return duration()
         else:
-            Kestra._metrics(name, "timer", duration, tags);
+            Kestra._timer(name, duration, tags)
+
+    @staticmethod
+    def timed(name, tags=None):
+        """
+        Times a block or a function with a monotonic clock:
+
+            with Kestra.timed("load"):
+                ...
+
+            @Kestra.timed("transform", {"step": "1"})
+            def transform(): ...
+        """
+        return _Timed(name, tags)
+
+    @staticmethod
+    def _timer(name, value, tags):
+        with Kestra._lock:
+            if Kestra._histogram_buckets is None:
+                Kestra._timers.append(Kestra._metric(name, "timer", value, tags))
+            else:
+                key = Kestra._key(name, tags)
+                histogram = Kestra._histograms.get(key)
+                if histogram is None:
+                    histogram = Kestra._histograms[key] = _Histogram(Kestra._histogram_buckets, Kestra._histogram_percentiles, tags)
+                histogram.observe(value)
+            Kestra._maybe_flush()
+
+
+class _Timed:
+    def __init__(self, name, tags):
+        self.name = name
+        self.tags = tags
+        self.start = None
+
+    def __enter__(self):
+        self.start = time.perf_counter_ns()
+        return self
+
+    def __exit__(self, exc_type, exc_value, traceback):
+        Kestra._timer(self.name, (time.perf_counter_ns() - self.start) / 1e9, self.tags)
+        return False
+
+    def __call__(self, function):
+        @functools.wraps(function)
+        def wrapper(*args, **kwargs):
+            with _Timed(self.name, self.tags):
+                return function(*args, **kwargs)
+
+        return wrapper
+
+
+class _Histogram:
+    _SAMPLE_SIZE = 1024
+
+    def __init__(self, buckets, percentiles, tags):
+        self.buckets = buckets
+        self.percentiles = percentiles
+        self.sample = []
+        self.tags = tags or {}
+        self.counts = [0] * (len(buckets) + 1)
+        self.count = 0
+        self.sum = 0
+        self.min = None
+        self.max = None
+
+    def observe(self, value):
+        self.counts[bisect.bisect_left(self.buckets, value)] += 1
+        self.count += 1
+        self.sum += value
+        self.min = value if self.min is None else min(self.min, value)
+        self.max = value if self.max is None else max(self.max, value)
+
+        if self.percentiles:
+            # reservoir sampling keeps the memory bounded whatever the number of calls
+            if len(self.sample) < self._SAMPLE_SIZE:
+                self.sample.append(value)
+            else:
+                i = random.randrange(self.count)
+                if i < self._SAMPLE_SIZE:
+                    self.sample[i] = value
+
+    def metrics(self, name):
+        metrics = [
+            Kestra._metric(name, "timer", self.sum, {**self.tags, "stat": "sum"}),
+            Kestra._metric(name, "timer", self.min, {**self.tags, "stat": "min"}),
+            Kestra._metric(name, "timer", self.max, {**self.tags, "stat": "max"}),
+            Kestra._metric(name + ".count", "counter", self.count, self.tags),
+        ]
+
+        for i, count in enumerate(self.counts):
+            if count:
+                le = str(self.buckets[i]) if i < len(self.buckets) else "+Inf"
+                metrics.append(Kestra._metric(name + ".bucket", "counter", count, {**self.tags, "le": le}))
+
+        if self.sample:
+            sample = sorted(self.sample)
+            for percentile in self.percentiles:
+                value = sample[min(len(sample) - 1, int(percentile * len(sample)))]
+                metrics.append(Kestra._metric(name, "timer", value, {**self.tags, "stat": "p" + format(percentile * 100, "g")}))
+
+        return metrics
+
+
+atexit.register(Kestra.flush)
@@ -0,0 +1,76 @@
+"""
+Arrow IPC helpers used to hand data over between Python tasks.
+
+Tables are written as Arrow IPC files ('<name>.arrow', also readable as Feather v2) that the task
+uploads to the internal storage. The next task gets them staged in its working directory and reads
+them through a memory map: as long as the file is not compressed, the returned table points directly
+at the mapped pages, so there is no parsing or copy whatever the size of the data.
+
+    from kestra_arrow import write_arrow, read_arrow
+
+    write_arrow("orders", df)
+    table = read_arrow("orders")
+
+Requires the 'pyarrow' package.
+"""
+import os
+
+ARROW_EXTENSION = ".arrow"
+
+
+def arrow_path(name):
+    """
+    Returns the file used for a named Arrow input or output, e.g. 'orders' -> 'orders.arrow'.
+    Paths, or names already ending with the extension, are returned as is.
+    """
+    if name.endswith(ARROW_EXTENSION) or os.sep in name:
+        return name
+    return name + ARROW_EXTENSION
+
+
+def _to_table(data):
+    import pyarrow as pa
+
+    if isinstance(data, pa.Table):
+        return data
+    if isinstance(data, pa.RecordBatch):
+        return pa.Table.from_batches([data])
+    if hasattr(data, "to_arrow"):
+        # polars, duckdb relations, ...
+        return data.to_arrow()
+    if type(data).__module__.startswith("pandas"):
+        return pa.Table.from_pandas(data, preserve_index=False)
+    if isinstance(data, dict):
+        return pa.table(data)
+    if isinstance(data, list):
+        return pa.Table.from_pylist(data)
+    raise TypeError("Unsupported data type for an Arrow output: " + type(data).__name__)
+
+
+def write_arrow(name, data, compression=None):
+    """
+    Writes a table (pyarrow Table or RecordBatch, pandas or polars DataFrame, dict of columns or list
+    of rows) as an Arrow IPC file and returns its path.
+    Compression ('lz4' or 'zstd') makes the file smaller but disables zero-copy reads.
+    """
+    import pyarrow as pa
+
+    table = _to_table(data)
+    path = arrow_path(name)
+    options = pa.ipc.IpcWriteOptions(compression=compression) if compression else None
+
+    with pa.OSFile(path, "wb") as sink:
+        with pa.ipc.new_file(sink, table.schema, options=options) as writer:
+            writer.write_table(table)
+
+    return path
+
+
+def read_arrow(name):
+    """
+    Reads an Arrow IPC file through a memory map and returns a pyarrow Table.
+    """
+    import pyarrow as pa
+
+    source = pa.memory_map(arrow_path(name), "r")
+    return pa.ipc.open_file(source).read_all()
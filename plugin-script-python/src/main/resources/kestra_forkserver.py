@@ -0,0 +1,208 @@
+"""
+Fork server used by the Python Script task when 'forkServer' is enabled.
+
+The server pre-imports a list of modules once, then forks a fresh child for each task. The child
+inherits the already imported modules (copy-on-write) but gets the working directory, environment,
+PYTHONPATH and standard streams of the task that requested it, so each task still runs in its own
+process.
+
+Usage:
+    python kestra_forkserver.py serve <socket> [module ...]
+    python kestra_forkserver.py run <socket> <script> [arg ...]
+"""
+import atexit
+import importlib
+import json
+import os
+import signal
+import socket
+import struct
+import sys
+import traceback
+
+_HEADER = struct.Struct("!I")
+_STD_FDS = 3
+_ACCEPT_TIMEOUT_SECONDS = 1.0
+
+
+def _send_json(conn, payload):
+    data = json.dumps(payload).encode("utf-8")
+    conn.sendall(_HEADER.pack(len(data)) + data)
+
+
+def _recv_exactly(conn, size, buffer=b""):
+    while len(buffer) < size:
+        chunk = conn.recv(size - len(buffer))
+        if not chunk:
+            raise EOFError("connection closed")
+        buffer += chunk
+    return buffer
+
+
+def _recv_json(conn):
+    length = _HEADER.unpack(_recv_exactly(conn, _HEADER.size))[0]
+    return json.loads(_recv_exactly(conn, length).decode("utf-8"))
+
+
+def _exit_code(status):
+    code = os.waitstatus_to_exitcode(status)
+    # mirror the shell convention for children killed by a signal
+    return 128 - code if code < 0 else code
+
+
+def _run_child(request, fds):
+    os.setsid()
+    for target, fd in enumerate(fds):
+        os.dup2(fd, target)
+        os.close(fd)
+
+    signal.signal(signal.SIGCHLD, signal.SIG_DFL)
+    signal.signal(signal.SIGTERM, signal.SIG_DFL)
+    signal.signal(signal.SIGINT, signal.default_int_handler)
+
+    os.chdir(request["cwd"])
+    os.environ.clear()
+    os.environ.update(request["env"])
+
+    python_path = request["env"].get("PYTHONPATH")
+    if python_path:
+        sys.path[0:0] = [entry for entry in python_path.split(os.pathsep) if entry]
+    sys.path.insert(0, os.path.dirname(os.path.abspath(request["script"])))
+    sys.argv = [request["script"]] + request["args"]
+
+    sys.stdin = open(0, "r", closefd=False)
+    sys.stdout = open(1, "w", buffering=1, closefd=False)
+    sys.stderr = open(2, "w", buffering=1, closefd=False)
+
+    code = 0
+    try:
+        import runpy
+        runpy.run_path(request["script"], run_name="__main__")
+    except SystemExit as e:
+        if e.code is None:
+            code = 0
+        elif isinstance(e.code, int):
+            code = e.code
+        else:
+            print(e.code, file=sys.stderr)
+            code = 1
+    except BaseException:
+        traceback.print_exc()
+        code = 1
+    finally:
+        # os._exit skips them, unlike the interpreter exit: e.g. logging.shutdown flushing the file handlers
+        try:
+            atexit._run_exitfuncs()
+        except BaseException:
+            traceback.print_exc()
+        sys.stdout.flush()
+        sys.stderr.flush()
+    os._exit(code)
+
+
+def _supervise(conn, request, fds):
+    # Runs in a forked supervisor: forks the task child, reports its pid then its exit code.
+    signal.signal(signal.SIGCHLD, signal.SIG_DFL)
+    pid = os.fork()
+    if pid == 0:
+        conn.close()
+        _run_child(request, fds)
+
+    for fd in fds:
+        os.close(fd)
+    _send_json(conn, {"pid": pid})
+    _, status = os.waitpid(pid, 0)
+    _send_json(conn, {"exitCode": _exit_code(status)})
+    conn.close()
+    os._exit(0)
+
+
+def serve(path, modules):
+    for module in modules:
+        try:
+            importlib.import_module(module)
+        except Exception as e:
+            print("Unable to pre-import module '{}': {}".format(module, e), file=sys.stderr)
+
+    # supervisors are reaped automatically
+    signal.signal(signal.SIGCHLD, signal.SIG_IGN)
+
+    if os.path.exists(path):
+        os.unlink(path)
+
+    parent = os.getppid()
+    server = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+    server.bind(path)
+    os.chmod(path, 0o600)
+    server.listen(128)
+    server.settimeout(_ACCEPT_TIMEOUT_SECONDS)
+
+    while os.getppid() == parent:
+        try:
+            conn, _ = server.accept()
+        except socket.timeout:
+            continue
+
+        try:
+            conn.settimeout(None)
+            msg, fds, _, _ = socket.recv_fds(conn, 65536, _STD_FDS)
+            length = _HEADER.unpack(msg[:_HEADER.size])[0]
+            request = json.loads(_recv_exactly(conn, length, msg[_HEADER.size:]).decode("utf-8"))
+        except Exception:
+            traceback.print_exc()
+            conn.close()
+            continue
+
+        if os.fork() == 0:
+            server.close()
+            _supervise(conn, request, fds)
+
+        for fd in fds:
+            os.close(fd)
+        conn.close()
+
+    server.close()
+    if os.path.exists(path):
+        os.unlink(path)
+
+
+def run(path, script, args):
+    client = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+    client.connect(path)
+
+    data = json.dumps({
+        "script": os.path.abspath(script),
+        "args": args,
+        "cwd": os.getcwd(),
+        "env": dict(os.environ),
+    }).encode("utf-8")
+    socket.send_fds(client, [_HEADER.pack(len(data)) + data], [0, 1, 2])
+
+    pid = _recv_json(client)["pid"]
+
+    def forward(signum, frame):
+        try:
+            os.killpg(pid, signum)
+        except ProcessLookupError:
+            pass
+
+    signal.signal(signal.SIGTERM, forward)
+    signal.signal(signal.SIGINT, forward)
+
+    try:
+        code = _recv_json(client)["exitCode"]
+    except EOFError:
+        print("Lost connection to the Python fork server", file=sys.stderr)
+        code = 1
+    sys.exit(code)
+
+
+if __name__ == "__main__":
+    if len(sys.argv) < 3 or sys.argv[1] not in ("serve", "run"):
+        print(__doc__, file=sys.stderr)
+        sys.exit(2)
+
+    if sys.argv[1] == "serve":
+        serve(sys.argv[2], sys.argv[3:])
+    else:
+        run(sys.argv[2], sys.argv[3], sys.argv[4:])
@@ -1,5 +1,6 @@
 package io.kestra.core.tasks.scripts;
 
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.*;
 
@@ -21,7 +22,10 @@ import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
@@ -91,6 +95,75 @@ class PythonTest {
         assertThat(run.getVars().get("extract"), is("200"));
     }
 
+    @Test
+    void requirementsAreRestoredFromTheDependencyCache() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put("main.py", "import requests; print('::{\"outputs\": {\"version\":\"' + requests.__version__ + '\"}}::')");
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .requirements(Collections.singletonList("requests==2.32.3"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        ScriptOutput run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("version"), is("2.32.3"));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.upload.duration")), is(true));
+
+        runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("version"), is("2.32.3"));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("deps.cache.download.duration")), is(true));
+    }
+
+    @Test
+    void dependencyCacheIsOnlyDisabledByAPipConfInputFile() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        // mentions pip.conf without providing one
+        files.put("main.py", "import requests; print('::{\"outputs\": {\"config\":\"pip.conf\"}}::')");
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .requirements(Collections.singletonList("requests==2.32.3"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        ScriptOutput run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().startsWith("deps.cache.")), is(true));
+    }
+
+    @Test
+    void inputFilesAreRenderedWithTheWorkingDirectory() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put("main.py", "import requests; print('::{\"outputs\": {\"workingDir\":\"{{ workingDir }}\"}}::')");
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .requirements(Collections.singletonList("requests==2.32.3"))
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        ScriptOutput run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("workingDir"), is(runContext.workingDir().path().toAbsolutePath().toString()));
+    }
+
     @Test
     void noVirtualEnv() throws Exception {
         Python python = Python.builder()
@@ -242,6 +315,9 @@ class PythonTest {
         RunContext runContext = TestsUtils.mockRunContext(runContextFactory, node, ImmutableMap.of("test", "value"));
         ScriptOutput run = node.run(runContext);
 
+        // outputs & metrics go through the side channel, stdout is left for logs
+        assertThat(run.getStdOutLineCount(), is(0));
+
         assertThat(run.getVars().get("test"), is("value"));
         assertThat(run.getVars().get("int"), is(2));
         assertThat(run.getVars().get("bool"), is(true));
@@ -270,6 +346,105 @@ class PythonTest {
         assertThat(PythonTest.<Duration> getMetrics(runContext, "timer2").getTags().get("tag2"), is("destroy"));
     }
 
+    @Test
+    void outputsOfAFailedScript() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put(
+            "main.py", "import sys\n" +
+                "from kestra import Kestra\n" +
+                "Kestra.outputs({'processed': 10})\n" +
+                "Kestra.counter('failed', 1)\n" +
+                "sys.exit(1)\n"
+        );
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        RunnableTaskException pythonException = assertThrows(RunnableTaskException.class, () -> python.run(runContext));
+
+        // what was sent through the side channel before the failure is kept, as with the stdout convention
+        io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput output = (io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput) pythonException.getOutput();
+        assertThat(output.getExitCode(), is(1));
+        assertThat(output.getVars().get("processed"), is(10));
+        assertThat(getMetrics(runContext, "failed").getValue(), is(1D));
+        // the channel is outside the working directory, out of reach of the output files globs
+        assertThat(Files.exists(runContext.workingDir().path().resolve(".kestra_side_channel")), is(false));
+    }
+
+    @Test
+    void aggregatedMetrics() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put(
+            "main.py", "from kestra import Kestra\n" +
+                "Kestra.histogram_timers([1, 5])\n" +
+                "for i in range(10000):\n" +
+                "    Kestra.counter('records', 1, {'source': 'loop'})\n" +
+                "for duration in [0.5, 2, 3, 10]:\n" +
+                "    Kestra.timer('latency', duration)\n"
+        );
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        python.run(runContext);
+
+        assertThat(runContext.metrics().stream().filter(metric -> metric.getName().equals("records")).count(), is(1L));
+        assertThat(getMetrics(runContext, "records").getValue(), is(10000D));
+        assertThat(getMetrics(runContext, "records").getTags().get("source"), is("loop"));
+        assertThat(getMetrics(runContext, "latency.count").getValue(), is(4D));
+        assertThat(runContext.metrics().stream().filter(metric -> metric.getName().equals("latency.bucket")).count(), is(3L));
+    }
+
+    @Test
+    void timed() throws Exception {
+        Map<String, String> files = new HashMap<>();
+        files.put(
+            "main.py", "from kestra import Kestra\n" +
+                "import time\n" +
+                "with Kestra.timed('block', {'step': 'sleep'}):\n" +
+                "    time.sleep(1.1)\n" +
+                "@Kestra.timed('function')\n" +
+                "def work():\n" +
+                "    time.sleep(0.2)\n" +
+                "work()\n" +
+                "Kestra.histogram_timers(percentiles=[0.5, 0.99])\n" +
+                "for duration in range(1, 101):\n" +
+                "    Kestra.timer('latency', duration / 100)\n"
+        );
+
+        Python python = Python.builder()
+            .id("test-python-task")
+            .type(Python.class.getName())
+            .pythonPath("python3")
+            .inputFiles(files)
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, Map.of());
+        python.run(runContext);
+
+        // spans a second boundary, so a wall-clock sub-second diff would be wrong here
+        assertThat(PythonTest.<Duration> getMetrics(runContext, "block").getValue().toMillis(), greaterThanOrEqualTo(1100L));
+        assertThat(PythonTest.<Duration> getMetrics(runContext, "block").getValue().toMillis(), lessThan(5000L));
+        assertThat(PythonTest.<Duration> getMetrics(runContext, "block").getTags().get("step"), is("sleep"));
+        assertThat(PythonTest.<Duration> getMetrics(runContext, "function").getValue().toMillis(), greaterThanOrEqualTo(200L));
+
+        List<String> stats = runContext.metrics().stream()
+            .filter(metric -> metric.getName().equals("latency"))
+            .map(metric -> metric.getTags().get("stat"))
+            .toList();
+        assertThat(stats, hasItems("sum", "min", "max", "p50", "p99"));
+    }
+
     @Test
     void outputFiles() throws Exception {
         Map<String, String> files = new HashMap<>();
@@ -5,6 +5,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -381,6 +382,117 @@ class ScriptTest {
         assertThat(run.getVars().get("extract"), is("six"));
     }
 
+    @Test
+    void forkServer() throws Exception {
+        Script python = Script.builder()
+            .id("python-script-forkserver-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .runner(RunnerType.PROCESS)
+            .forkServer(Property.ofValue(true))
+            // neither the launcher nor the interpreter start-up import it
+            .forkServerModules(Property.ofValue(List.of("fractions")))
+            .script(
+                Property.ofValue(
+                    "import sys\n" +
+                        "print('::{\"outputs\": {\"preloaded\": ' + str('fractions' in sys.modules).lower() + '}}::')"
+                )
+            )
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, ImmutableMap.of());
+        ScriptOutput run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("preloaded"), is(true));
+
+        Script failing = Script.builder()
+            .id("python-script-forkserver-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .runner(RunnerType.PROCESS)
+            .forkServer(Property.ofValue(true))
+            .forkServerModules(Property.ofValue(List.of("json")))
+            .script(Property.ofValue("import sys; sys.exit(3)"))
+            .build();
+
+        RunContext failingRunContext = TestsUtils.mockRunContext(runContextFactory, failing, ImmutableMap.of());
+        RunnableTaskException exception = assertThrows(RunnableTaskException.class, () -> failing.run(failingRunContext));
+
+        assertThat(((ScriptOutput) exception.getOutput()).getExitCode(), is(3));
+    }
+
+    @Test
+    void forkServerRunsTheExitHandlers() throws Exception {
+        Script python = Script.builder()
+            .id("python-script-forkserver-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .runner(RunnerType.PROCESS)
+            .forkServer(Property.ofValue(true))
+            .forkServerModules(Property.ofValue(List.of("json")))
+            .script(
+                Property.ofValue(
+                    "import atexit\n" +
+                        "atexit.register(lambda: print('::{\"outputs\": {\"atexit\": true}}::'))"
+                )
+            )
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, python, ImmutableMap.of());
+        ScriptOutput run = python.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("atexit"), is(true));
+    }
+
+    @Test
+    void arrowHandOff() throws Exception {
+        Script extract = Script.builder()
+            .id("python-script-arrow-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .runner(RunnerType.PROCESS)
+            .dependencies(Property.ofValue(List.of("pyarrow")))
+            .arrowOutputs(Property.ofValue(List.of("orders")))
+            .script(
+                Property.ofValue(
+                    """
+                        from kestra_arrow import write_arrow
+                        write_arrow("orders", {"id": [1, 2, 3], "amount": [10.5, 20.0, 7.25]})
+                        """
+                )
+            )
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, extract, ImmutableMap.of());
+        ScriptOutput run = extract.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getOutputFiles().get("orders.arrow"), notNullValue());
+
+        Script transform = Script.builder()
+            .id("python-script-arrow-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .runner(RunnerType.PROCESS)
+            .dependencies(Property.ofValue(List.of("pyarrow")))
+            .arrowInputs(Property.ofValue(Map.of("orders", run.getOutputFiles().get("orders.arrow").toString())))
+            .script(
+                Property.ofValue(
+                    """
+                        import pyarrow.compute as pc
+                        from kestra_arrow import read_arrow
+                        orders = read_arrow("orders")
+                        print('::{"outputs": {"rows": %d, "total": %s}}::' % (orders.num_rows, pc.sum(orders["amount"]).as_py()))
+                        """
+                )
+            )
+            .build();
+
+        RunContext transformRunContext = TestsUtils.mockRunContext(runContextFactory, transform, ImmutableMap.of());
+        ScriptOutput transformed = transform.run(transformRunContext);
+
+        assertThat(transformed.getExitCode(), is(0));
+        assertThat(transformed.getVars().get("rows"), is(3));
+        assertThat(transformed.getVars().get("total"), is(37.75));
+    }
+
     @Test
     void buildRunCommandPrefersActivatedVenvButFallsBackToResolvedInterpreterOnPosix() {
         String resolvedInterpreter = "/root/.local/share/uv/python/cpython-3.13/bin/python3.13";
@@ -1,10 +1,15 @@
 package io.kestra.plugin.scripts.python.internals;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.property.Property;
@@ -78,4 +83,68 @@ class PythonEnvironmentManagerTest {
         Process process = new ProcessBuilder(environment.interpreter(), "--version").start();
         assertThat(process.waitFor(), is(0));
     }
+
+    @Test
+    void shouldReuseThePreparedEnvironmentUntilDependenciesChange() throws Exception {
+        PreparedPythonEnvironment prepared = new PreparedPythonEnvironment();
+        Script task = Script.builder()
+            .id("python-env-manager-test-" + UUID.randomUUID())
+            .type(Script.class.getName())
+            .script(Property.ofValue("print('hello')"))
+            .dependencies(Property.ofValue(List.of("six")))
+            .build();
+
+        RunContext first = mockRunContext(runContextFactory, task, Map.of());
+        PythonEnvironmentManager.ResolvedPythonEnvironment resolved = new PythonEnvironmentManager(first, task)
+            .setup(task.getContainerImage(), null, RunnerType.PROCESS, prepared);
+
+        RunContext second = mockRunContext(runContextFactory, task, Map.of());
+        PythonEnvironmentManager.ResolvedPythonEnvironment reused = new PythonEnvironmentManager(second, task)
+            .setup(task.getContainerImage(), null, RunnerType.PROCESS, prepared);
+
+        assertThat(reused.cached(), is(true));
+        assertThat(reused.interpreter(), is(resolved.interpreter()));
+        assertThat(reused.packages().hash(), is(resolved.packages().hash()));
+        assertThat(reused.packages().path().startsWith(second.workingDir().path()), is(true));
+        assertThat(Files.exists(reused.packages().path().resolve("six.py")), is(true));
+
+        Script changed = Script.builder()
+            .id(task.getId())
+            .type(Script.class.getName())
+            .script(Property.ofValue("print('hello')"))
+            .dependencies(Property.ofValue(List.of("six", "idna")))
+            .build();
+        RunContext third = mockRunContext(runContextFactory, changed, Map.of());
+        PythonEnvironmentManager.ResolvedPythonEnvironment updated = new PythonEnvironmentManager(third, changed)
+            .setup(changed.getContainerImage(), null, RunnerType.PROCESS, prepared);
+
+        assertThat(updated.packages().hash(), is(not(resolved.packages().hash())));
+    }
+
+    @Test
+    void shouldShareThePreparedCopiesAndDeleteTheUnusedOnes() throws Exception {
+        Path localCacheDir = Files.createTempDirectory("prepared-python-envs");
+        Path packages = Files.createDirectories(localCacheDir.resolve("resolved").resolve("lib"));
+        Files.writeString(packages.resolve("six.py"), "");
+        Path lockFile = Files.writeString(localCacheDir.resolve("resolved").resolve("requirements.txt"), "six==1.17.0");
+        PythonEnvironmentManager.ResolvedPythonEnvironment environment = new PythonEnvironmentManager.ResolvedPythonEnvironment(
+            false,
+            new ResolvedPythonPackages(packages, lockFile, "hash", "3.12"),
+            "python3"
+        );
+
+        new PreparedPythonEnvironment().keep(LoggerFactory.getLogger(getClass()), "first", localCacheDir, environment);
+        new PreparedPythonEnvironment().keep(LoggerFactory.getLogger(getClass()), "first", localCacheDir, environment);
+
+        Path root = localCacheDir.resolve("python-prepared-envs");
+        try (var children = Files.list(root)) {
+            assertThat(children.toList(), is(List.of(root.resolve("first"))));
+        }
+
+        Files.setLastModifiedTime(root.resolve("first"), FileTime.from(Instant.now().minus(PreparedPythonEnvironment.UNUSED_AFTER).minusSeconds(60)));
+        new PreparedPythonEnvironment().keep(LoggerFactory.getLogger(getClass()), "second", localCacheDir, environment);
+
+        assertThat(Files.exists(root.resolve("first")), is(false));
+        assertThat(Files.exists(root.resolve("second").resolve("lib").resolve("six.py")), is(true));
+    }
 }
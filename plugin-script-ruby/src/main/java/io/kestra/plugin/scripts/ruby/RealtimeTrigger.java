@@ -0,0 +1,72 @@
+package io.kestra.plugin.scripts.ruby;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.plugin.scripts.exec.AbstractRealtimeScriptTrigger;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger on events streamed by a long-running Ruby script",
+    description = "Starts the Ruby script once (default image ruby) and keeps it running. Each ::{\"outputs\":...}:: line it prints is an event; events matching the optional condition emit an execution immediately, without starting a process or container per poll. The script is restarted after restartDelay if it exits."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Emit an execution for each event streamed by a Ruby script.",
+            full = true,
+            code = """
+                id: ruby_realtime_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.scripts.ruby.RealtimeTrigger
+                    script: |
+                      require 'json'
+                      $stdout.sync = true
+
+                      loop do
+                        value = rand
+                        puts "::#{JSON.generate({ outputs: { value: value } })}::" if value > 0.9
+                        sleep 0.5
+                      end
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "Value {{ trigger.vars.value }}"
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractRealtimeScriptTrigger {
+    private static final String DEFAULT_IMAGE = "ruby";
+
+    @Schema(
+        title = "Container image for the Ruby runtime",
+        description = "Defaults to 'ruby'; only used by the Docker task runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<String> containerImage = Property.ofValue(DEFAULT_IMAGE);
+
+    @Override
+    protected String scriptExtension() {
+        return ".rb";
+    }
+
+    @Override
+    protected String runCommand(String scriptPath) {
+        return "ruby " + scriptPath;
+    }
+}
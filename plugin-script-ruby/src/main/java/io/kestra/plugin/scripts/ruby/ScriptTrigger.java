@@ -2,14 +2,10 @@ package io.kestra.plugin.scripts.ruby;
 
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
-import io.kestra.core.models.conditions.ConditionContext;
-import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
-import io.kestra.core.models.tasks.RunnableTaskException;
-import io.kestra.core.models.tasks.runners.TaskException;
-import io.kestra.core.models.triggers.*;
+import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
-import io.kestra.plugin.scripts.exec.TriggerRunContext;
+import io.kestra.plugin.scripts.exec.AbstractScriptTrigger;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -17,15 +13,6 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import io.kestra.core.models.annotations.PluginProperty;
 
 @SuperBuilder
@@ -60,16 +47,10 @@ import io.kestra.core.models.annotations.PluginProperty;
         )
     }
 )
-// TODO: extract shared trigger logic (evaluate, matchesCondition, extractFailure, Output)
-//  into an AbstractScriptTrigger in plugin-script to reduce duplication across Shell, Node, Ruby, etc.
-public class ScriptTrigger extends AbstractTrigger
-    implements PollingTriggerInterface, TriggerOutput<ScriptTrigger.Output> {
+public class ScriptTrigger extends AbstractScriptTrigger {
 
     private static final String DEFAULT_IMAGE = "ruby";
 
-    private static final Pattern EXIT_CONDITION_PATTERN =
-        Pattern.compile("^\\s*exit\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE);
-
     @Schema(
         title = "Container image for script execution",
         description = "Image used by the Script task to run the inline Ruby script; defaults to 'ruby'."
@@ -92,6 +73,8 @@ public class ScriptTrigger extends AbstractTrigger
             Condition evaluated after each execution. The trigger emits only when it matches.
             'exit N' compares the exit code, otherwise the string is used as a regex
             (or substring fallback) against emitted vars and failure logs.
+            '$.path.to.key' matches when that var is set (and not false), 'key=value' or '$.path.to.key=value' compares a var, and regexes are matched against each 'path=value' leaf of the vars, then, when they contain ',', '{' or '}', against the whole map.
+            'changed' or 'changed $.path.to.key' matches when the vars, or that var, differ from the previous poll; with `changeFile`, when the content of that file differs. The first poll never matches.
             """
     )
     @NotNull
@@ -117,167 +100,14 @@ public class ScriptTrigger extends AbstractTrigger
     @PluginProperty(group = "advanced")
     protected Property<Boolean> edge = Property.ofValue(true);
 
-    // Known limitation: in-memory only — resets when the trigger is rehydrated (e.g. after restart),
-    // so edge mode may re-fire once after a scheduler restart.
-    @Getter(AccessLevel.NONE)
-    @Builder.Default
-    private final AtomicBoolean lastMatched = new AtomicBoolean(false);
-
     @Override
-    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
-        RunContext runContext = conditionContext.getRunContext();
-        boolean edgeEnabled = runContext.render(this.edge).as(Boolean.class).orElse(true);
-
-        Output output;
-        try {
-            output = runOnce(runContext);
-        } catch (Exception e) {
-            runContext.logger().warn("Trigger evaluation failed, returning empty result to avoid blocking the scheduler", e);
-            return Optional.empty();
-        }
-
-        boolean matched = matchesCondition(output);
-
-        boolean emit = edgeEnabled
-            ? (!lastMatched.getAndSet(matched) && matched)
-            : matched;
-
-        if (!emit) {
-            return Optional.empty();
-        }
-
-        return Optional.of(
-            TriggerService.generateExecution(this, conditionContext, context, output)
-        );
-    }
-
-    private Output runOnce(RunContext runContext) throws Exception {
-        Script task = Script.builder()
+    protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception {
+        return Script.builder()
             .id(this.getId())
             .type(Script.class.getName())
             .containerImage(this.containerImage)
             .script(this.script)
+            .outputFiles(this.changeFileOutputs(runContext))
             .build();
-
-        String renderedCondition = runContext.render(this.exitCondition)
-            .as(String.class)
-            .orElse("");
-
-        try {
-            ScriptOutput taskOutput = task.run(TriggerRunContext.forEmbeddedTask(runContext, task));
-
-            return new Output(
-                Instant.now(),
-                renderedCondition,
-                safeExitCode(taskOutput),
-                safeVars(taskOutput)
-            );
-        } catch (RunnableTaskException e) {
-            ExtractedFailure failure = extractFailure(e);
-            return new Output(
-                Instant.now(),
-                renderedCondition,
-                failure.exitCode,
-                null
-            );
-        }
-    }
-
-    boolean matchesCondition(Output out) {
-        String cond = out.getCondition() == null ? "" : out.getCondition().trim();
-
-        Matcher exitMatcher = EXIT_CONDITION_PATTERN.matcher(cond);
-
-        if (exitMatcher.matches()) {
-            int expected = Integer.parseInt(exitMatcher.group(1));
-            return out.getExitCode() != null && out.getExitCode() == expected;
-        }
-
-        String haystack = buildHaystack(out);
-        if (haystack.isEmpty() || cond.isEmpty()) {
-            return false;
-        }
-
-        try {
-            // Guard against catastrophic backtracking (ReDoS) from user-supplied patterns
-            var pattern = Pattern.compile(cond);
-            var future = CompletableFuture.supplyAsync(
-                () -> pattern.matcher(haystack).find()
-            );
-            return future.get(5, TimeUnit.SECONDS);
-        } catch (TimeoutException te) {
-            return haystack.contains(cond);
-        } catch (Exception e) {
-            return haystack.contains(cond);
-        }
-    }
-
-    private String buildHaystack(Output out) {
-        if (out.getVars() == null || out.getVars().isEmpty()) {
-            return "";
-        }
-        // Map.toString() produces {key=value, ...} — intentional for substring/regex matching.
-        return out.getVars().toString();
-    }
-
-    private Integer safeExitCode(ScriptOutput output) {
-        try {
-            return output.getExitCode();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private Map<String, Object> safeVars(ScriptOutput output) {
-        try {
-            return output.getVars();
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private record ExtractedFailure(Integer exitCode) {}
-
-    private ExtractedFailure extractFailure(RunnableTaskException e) {
-        Integer exitCode = null;
-
-        Throwable cur = e.getCause();
-        while (cur != null) {
-            if (cur instanceof TaskException te) {
-                exitCode = te.getExitCode();
-                break;
-            }
-            cur = cur.getCause();
-        }
-
-        return new ExtractedFailure(exitCode);
-    }
-
-    @Data
-    @AllArgsConstructor
-    public static class Output implements io.kestra.core.models.tasks.Output {
-        @Schema(
-            title = "Poll timestamp",
-            description = "Timestamp when this trigger evaluation occurred."
-        )
-        private Instant timestamp;
-
-        @Schema(
-            title = "Rendered condition",
-            description = "Rendered value of the exitCondition property for this poll."
-        )
-        private String condition;
-
-        @Schema(
-            title = "Script exit code",
-            description = "Exit code returned by the Ruby process (may be null if not available)."
-        )
-        private Integer exitCode;
-
-        @Schema(
-            title = "Script vars",
-            description = "Vars produced by the task (e.g. via ::{\"outputs\":{...}}:: convention)."
-        )
-        private Map<String, Object> vars;
     }
 }
@@ -1,25 +1,26 @@
 package io.kestra.plugin.scripts.shell;
 
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Plugin;
-import io.kestra.core.models.conditions.ConditionContext;
-import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
-import io.kestra.core.models.tasks.RunnableTaskException;
-import io.kestra.core.models.tasks.runners.TaskException;
-import io.kestra.core.models.triggers.*;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.runners.TaskRunner;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.AbstractScriptTrigger;
 import io.kestra.plugin.scripts.exec.TriggerRunContext;
 import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+import io.kestra.plugin.scripts.exec.scripts.runners.DefaultLogConsumer;
+import io.kestra.plugin.scripts.runner.docker.Docker;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -60,14 +61,39 @@ import io.kestra.core.models.annotations.PluginProperty;
                     type: io.kestra.plugin.core.log.Log
                     message: "Triggered with exitCode={{ trigger.exitCode }} (condition={{ trigger.condition }})"
                 """
+        ),
+        @Example(
+            title = "Check a file in batch mode: the batched triggers polling with the same image share one container per tick.",
+            full = true,
+            code = """
+                id: commands_batch_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: report_ready
+                    type: io.kestra.plugin.scripts.shell.CommandsTrigger
+                    interval: PT1M
+                    exitCondition: "exit 0"
+                    batch: true
+                    containerImage: ubuntu
+                    commands:
+                      - test -f /data/report.csv
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "The report is ready"
+                """
         )
     }
 )
-public class CommandsTrigger extends AbstractTrigger
-    implements PollingTriggerInterface, TriggerOutput<CommandsTrigger.Output> {
+public class CommandsTrigger extends AbstractScriptTrigger {
 
     private static final String DEFAULT_IMAGE = "ubuntu";
 
+    // how long the triggers of a batch wait for it when evaluationTimeout is not set
+    private static final Duration DEFAULT_BATCH_TIMEOUT = Duration.ofMinutes(10);
+
     @Schema(
         title = "Docker image used to execute the commands",
         description = """
@@ -97,6 +123,9 @@ public class CommandsTrigger extends AbstractTrigger
             - Any other string: treated as a regex (or substring if regex is invalid) matched against:
               - the task 'vars' (when commands emit ::{"outputs":...}::),
               - and error logs when the task fails (TaskException).
+            - '$.path.to.key' matches when that var is set (and not false); 'key=value' or '$.path.to.key=value' compares a var.
+            - 'changed' or 'changed $.path.to.key' matches when the vars, or that var, differ from the previous poll; with `changeFile`, when the content of that file differs. The first poll never matches.
+            Regexes are matched against each 'path=value' leaf of the vars, then, when they contain ',', '{' or '}', against the whole map as before.
             """
     )
     @NotNull
@@ -122,130 +151,117 @@ public class CommandsTrigger extends AbstractTrigger
     @PluginProperty(group = "advanced")
     protected Property<Boolean> edge = Property.ofValue(true);
 
+    @Schema(
+        title = "Batch mode",
+        description = """
+            If true, the evaluations of all the batched triggers of the same namespace that use the same container image are grouped into a single container run per tick:
+            the commands of each trigger run in their own shell, one after the other, and each trigger still gets its own exit code, vars and logs.
+            Meant for many small checks, where starting a container costs more than the check itself. Stderr is merged into stdout in this mode.
+            From their first evaluation on, batched triggers are evaluated on a grid of their polling interval (e.g. on every full minute with a `PT1M` interval), so that the triggers polling at the same interval are evaluated in the same tick.
+            `changeFile` is not supported in this mode.
+            """
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> batch = Property.ofValue(false);
+
+    @Schema(
+        title = "Batch window",
+        description = "In batch mode, how long the first evaluation of a tick waits for the other triggers to join its batch."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> batchWindow = Property.ofValue(Duration.ofMillis(500));
+
     @Builder.Default
     @Getter(AccessLevel.NONE)
-    private final AtomicBoolean lastMatched = new AtomicBoolean(false);
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<TaskRunner<?>> batchTaskRunner = new AtomicReference<>();
 
     @Override
-    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
-        RunContext runContext = conditionContext.getRunContext();
-        boolean rEdge = runContext.render(this.edge).as(Boolean.class).orElse(true);
-
-        Output out;
-        try {
-            out = runOnce(runContext);
-        } catch (Exception e) {
-            runContext.logger().warn("Trigger evaluation failed, returning empty result to avoid blocking the scheduler", e);
-            return Optional.empty();
+    protected ScriptOutput executeTask(RunContext runContext) throws Exception {
+        boolean rBatch = runContext.render(this.batch).as(Boolean.class).orElse(false);
+        // the triggers of a batch must be evaluated in the same tick to share it
+        this.alignEvaluations(rBatch);
+        if (!rBatch) {
+            return super.executeTask(runContext);
         }
 
-        boolean matched = matchesCondition(out);
-
-        boolean emit = rEdge
-            ? (!lastMatched.getAndSet(matched) && matched)
-            : matched;
-
-        if (!emit) {
-            return Optional.empty();
+        if (runContext.render(this.getChangeFile()).as(String.class).isPresent()) {
+            // the commands of a batch share one working directory, and their output files are not collected
+            throw new IllegalArgumentException("The changeFile property is not supported in batch mode");
         }
 
-        return Optional.of(TriggerService.generateExecution(this, conditionContext, context, out));
-    }
-
-    private Output runOnce(RunContext runContext) throws Exception {
-        Commands task = Commands.builder()
-            .id(this.getId())
-            .type(Commands.class.getName())
-            .containerImage(this.containerImage)
-            .commands(this.commands)
+        String rContainerImage = runContext.render(this.containerImage).as(String.class).orElse(DEFAULT_IMAGE);
+        Duration rBatchWindow = runContext.render(this.batchWindow).as(Duration.class).orElse(Duration.ofMillis(500));
+        Duration rEvaluationTimeout = runContext.render(this.getEvaluationTimeout()).as(Duration.class).orElse(DEFAULT_BATCH_TIMEOUT);
+
+        CommandsTriggerBatch.Result result = CommandsTriggerBatch.submit(
+            CommandsTriggerBatch.group(runContext, rContainerImage),
+            rBatchWindow,
+            rEvaluationTimeout,
+            runContext,
+            runContext.render(this.commands).asList(String.class),
+            (script, sections, logConsumer) -> this.runBatch(runContext, rContainerImage, script, sections, logConsumer)
+        );
+
+        return ScriptOutput.builder()
+            .exitCode(result.exitCode())
+            .vars(result.vars())
             .build();
-
-        String renderedCondition = runContext.render(this.exitCondition).as(String.class).orElse("");
-
-        try {
-            ScriptOutput taskOutput = task.run(TriggerRunContext.forEmbeddedTask(runContext, task));
-            Integer exitCode = safeExitCode(taskOutput);
-            Map<String, Object> vars = safeVars(taskOutput);
-
-            return new Output(Instant.now(), renderedCondition, exitCode, vars);
-        } catch (RunnableTaskException e) {
-            ExtractedFailure failure = extractFailure(e);
-            return new Output(Instant.now(), renderedCondition, failure.exitCode, null);
-        }
     }
 
-    private boolean matchesCondition(Output out) {
-        String cond = out.getCondition() == null ? "" : out.getCondition().trim();
-
-        Matcher exitMatcher = Pattern.compile("^\\s*exit\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE).matcher(cond);
-        if (exitMatcher.matches()) {
-            int expected = Integer.parseInt(exitMatcher.group(1));
-            return out.getExitCode() != null && out.getExitCode() == expected;
-        }
+    private void runBatch(RunContext runContext, String containerImage, String script, List<String> sections, DefaultLogConsumer logConsumer) throws Exception {
+        RunContext batchRunContext = TriggerRunContext.forEmbeddedTask(runContext, this.getId(), this.getType());
 
-        String haystack = buildHaystack(out);
-        if (haystack.isEmpty() || cond.isEmpty()) {
-            return false;
-        }
-
-        try {
-            return Pattern.compile(cond).matcher(haystack).find();
-        } catch (Exception invalidRegex) {
-            return haystack.contains(cond);
-        }
-    }
+        CommandsWrapper commands = new CommandsWrapper(batchRunContext)
+            .withTaskRunner(Docker.instance())
+            .withContainerImage(containerImage);
 
-    private String buildHaystack(Output out) {
-        if (out.getVars() == null || out.getVars().isEmpty()) {
-            return "";
+        Map<String, String> inputFiles = new HashMap<>();
+        List<String> relativePaths = new ArrayList<>();
+        for (String content : Stream.concat(Stream.of(script), sections.stream()).toList()) {
+            Path relativePath = batchRunContext.workingDir().path().relativize(batchRunContext.workingDir().createTempFile(".sh"));
+            inputFiles.put(relativePath.toString(), content);
+            relativePaths.add(relativePath.toString());
         }
-        return out.getVars().toString();
-    }
+        commands = commands.withInputFiles(inputFiles);
 
-    private Integer safeExitCode(ScriptOutput taskOutput) {
-        try {
-            return taskOutput.getExitCode();
-        } catch (Exception ignored) {
-            return null;
+        List<String> scriptPaths = new ArrayList<>();
+        for (String relativePath : relativePaths) {
+            scriptPaths.add("'" + commands.getTaskRunner().toAbsolutePath(batchRunContext, commands, relativePath, null) + "'");
         }
-    }
 
-    private Map<String, Object> safeVars(ScriptOutput taskOutput) {
+        this.batchTaskRunner.set(commands.getTaskRunner());
         try {
-            return taskOutput.getVars();
-        } catch (Exception ignored) {
-            return null;
+            commands
+                .withCommands(Property.ofValue(List.of("sh " + String.join(" ", scriptPaths))))
+                .withLogConsumer(logConsumer)
+                .run();
+        } finally {
+            this.batchTaskRunner.set(null);
         }
     }
 
-    private record ExtractedFailure(Integer exitCode) {
-    }
-
-    private ExtractedFailure extractFailure(RunnableTaskException e) {
-        Integer exitCode = null;
+    @Override
+    protected void killTask() {
+        super.killTask();
 
-        Throwable cur = e.getCause();
-        while (cur != null) {
-            if (cur instanceof TaskException te) {
-                exitCode = te.getExitCode();
-                break;
-            }
-            cur = cur.getCause();
+        TaskRunner<?> running = this.batchTaskRunner.get();
+        if (running != null) {
+            running.kill();
         }
-
-        return new ExtractedFailure(exitCode);
     }
 
-    @Data
-    @AllArgsConstructor
-    public static class Output implements io.kestra.core.models.tasks.Output {
-        @Schema(title = "Timestamp of the event that fired the trigger")
-        private Instant timestamp;
-        @Schema(title = "The captured rendered condition output")
-        private String condition;
-        @Schema(title = "The exit code of the executed commands")
-        private Integer exitCode;
-        @Schema(title = "Output variables captured from the commands")
-        private Map<String, Object> vars;
+    @Override
+    protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception {
+        return Commands.builder()
+            .id(this.getId())
+            .type(Commands.class.getName())
+            .containerImage(this.containerImage)
+            .commands(this.commands)
+            .outputFiles(this.changeFileOutputs(runContext))
+            .build();
     }
 }
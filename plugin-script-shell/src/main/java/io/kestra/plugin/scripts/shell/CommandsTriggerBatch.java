@@ -0,0 +1,269 @@
+package io.kestra.plugin.scripts.shell;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.runners.DefaultLogConsumer;
+
+/**
+ * Groups the evaluations of the batched shell {@link CommandsTrigger}s of a namespace that share a container image into
+ * a single process invocation.
+ * <p>
+ * The first evaluation of a group waits for {@code batchWindow} so that the evaluations of the same tick join it, then
+ * runs all their commands in one container, with its own run context. A group is therefore never shared across tenants
+ * or namespaces.
+ * <p>
+ * The commands of each trigger run in their own shell process between markers, and the output of each of them is
+ * routed to the logger of its own trigger, along with its vars and exit code. The markers carry a nonce drawn by the
+ * batch script before any commands run and never exported, so the commands can't print a marker of their own to
+ * fake the exit code or the output of another trigger.
+ */
+final class CommandsTriggerBatch {
+    private static final Map<List<String>, CommandsTriggerBatch> OPEN = new HashMap<>();
+
+    private static final String MARKER = "::kestra-batch::";
+
+    private final List<Request> requests = new ArrayList<>();
+
+    /**
+     * Runs the combined script of a batch.
+     */
+    @FunctionalInterface
+    interface Runner {
+        /**
+         * @param script the combined script, to run with {@code sh} with the paths of the section scripts as arguments
+         * @param sections the scripts of the triggers of the batch, in order
+         * @param logConsumer the consumer the script output must be sent to
+         */
+        void run(String script, List<String> sections, DefaultLogConsumer logConsumer) throws Exception;
+    }
+
+    /**
+     * Result of one trigger in a batch.
+     *
+     * @param exitCode the exit code of its commands
+     * @param vars the vars its commands emitted
+     */
+    record Result(int exitCode, Map<String, Object> vars) {}
+
+    private record Request(RunContext runContext, List<String> commands, CompletableFuture<Result> result) {}
+
+    private CommandsTriggerBatch() {}
+
+    /**
+     * @param runContext the run context of a trigger
+     * @param containerImage the rendered container image of the trigger
+     * @return the group of the trigger: only the triggers of the same tenant and namespace, with the same image, share
+     * a batch
+     */
+    static List<String> group(RunContext runContext, String containerImage) {
+        // the tenant is null without multi-tenancy, which List.of() rejects
+        return Arrays.asList(runContext.flowInfo().tenantId(), runContext.flowInfo().namespace(), containerImage);
+    }
+
+    /**
+     * Adds the commands of a trigger to the open batch of its group, opening one if needed, and waits for its result.
+     *
+     * @param group the group, see {@link #group(RunContext, String)}
+     * @param window how long the first evaluation of a group waits for the others
+     * @param timeout how long the batch may run, after the window, before the triggers waiting for it give up
+     * @param runContext the run context of the trigger, its commands output is logged there
+     * @param commands the rendered commands of the trigger
+     * @param runner runs the batch when the calling evaluation is the first of the group
+     * @return the result of the commands of the trigger
+     */
+    static Result submit(List<String> group, Duration window, Duration timeout, RunContext runContext, List<String> commands, Runner runner) throws Exception {
+        Request request = new Request(runContext, commands, new CompletableFuture<>());
+
+        CommandsTriggerBatch batch;
+        boolean leader = false;
+        synchronized (OPEN) {
+            batch = OPEN.get(group);
+            if (batch == null) {
+                batch = new CommandsTriggerBatch();
+                OPEN.put(group, batch);
+                leader = true;
+            }
+            batch.requests.add(request);
+        }
+
+        if (leader) {
+            try {
+                Thread.sleep(window.toMillis());
+            } catch (InterruptedException e) {
+                // the triggers that already joined would otherwise wait for a batch that never runs
+                batch.close();
+                batch.fail(e);
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+
+            batch.close();
+            batch.run(runContext, runner);
+        }
+
+        try {
+            return request.result().get(window.plus(timeout).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("the batch of the trigger did not complete within " + window.plus(timeout));
+        }
+    }
+
+    private void close() {
+        // no request can join once the batch is closed
+        synchronized (OPEN) {
+            OPEN.values().remove(this);
+        }
+    }
+
+    private void fail(Throwable cause) {
+        this.requests.forEach(request -> request.result().completeExceptionally(cause));
+    }
+
+    private void run(RunContext runContext, Runner runner) {
+        List<DefaultLogConsumer> sections = new ArrayList<>();
+        List<String> sectionScripts = new ArrayList<>();
+        StringBuilder script = new StringBuilder();
+
+        // drawn at run time and not exported, so the commands of the sections can't know it
+        script.append("nonce=$(od -An -N16 -tx1 /dev/urandom | tr -d ' \\n')\n");
+        script.append("[ -n \"$nonce\" ] || { echo 'Unable to draw the nonce of the batch' >&2; exit 1; }\n");
+        script.append("echo \"").append(MARKER).append("start::$nonce\"\n");
+        for (int i = 0; i < this.requests.size(); i++) {
+            sections.add(new DefaultLogConsumer(this.requests.get(i).runContext()));
+            sectionScripts.add(String.join("\n", this.requests.get(i).commands()) + "\n");
+
+            // the markers start with a newline, so that they are on a line of their own even after an output without a
+            // trailing one: the empty line this adds otherwise is dropped by the log consumer
+            script.append("printf '\\n%s\\n' \"").append(MARKER).append("$nonce::begin::").append(i).append("\"\n");
+            script.append("sh -e \"${").append(i + 1).append("}\" 2>&1\n");
+            script.append("printf '\\n%s\\n' \"").append(MARKER).append("$nonce::end::").append(i).append("::$?\"\n");
+        }
+        script.append("exit 0\n");
+
+        BatchLogConsumer logConsumer = new BatchLogConsumer(runContext, sections);
+        try {
+            runner.run(script.toString(), sectionScripts, logConsumer);
+
+            for (int i = 0; i < this.requests.size(); i++) {
+                Integer exitCode = logConsumer.exitCodes.get(i);
+                if (exitCode == null) {
+                    this.requests.get(i).result().completeExceptionally(new IllegalStateException("The batched commands did not complete"));
+                } else {
+                    this.requests.get(i).result().complete(new Result(exitCode, new HashMap<>(sections.get(i).getOutputs())));
+                }
+            }
+        } catch (Exception e) {
+            this.fail(e);
+        } finally {
+            // completing a done future is a no-op: this only fails the requests left behind by an unexpected error
+            this.fail(new IllegalStateException("The batch ended without a result for the trigger"));
+        }
+    }
+
+    /**
+     * Sends the lines between the markers of a trigger to the log consumer of that trigger.
+     * <p>
+     * The first marker of the output gives the nonce of the batch; the lines printed before are the output of the batch
+     * itself, and the markers with another nonce are plain output. The empty lines are held back until the next line:
+     * the last one before a marker is the one printed with the marker.
+     */
+    private static class BatchLogConsumer extends DefaultLogConsumer {
+        private static final Pattern START_PATTERN = Pattern.compile("^" + Pattern.quote(MARKER) + "start::([0-9a-f]{32})$");
+
+        private final List<DefaultLogConsumer> sections;
+        private final Map<Integer, Integer> exitCodes = new HashMap<>();
+        private final List<String> emptyLines = new ArrayList<>();
+        private Pattern markerPattern;
+        private DefaultLogConsumer current;
+
+        BatchLogConsumer(RunContext runContext, List<DefaultLogConsumer> sections) {
+            super(runContext);
+            this.sections = sections;
+        }
+
+        @Override
+        public void accept(String line, Boolean isStdErr) {
+            if (!this.route(line, isStdErr)) {
+                super.accept(line, isStdErr);
+            }
+        }
+
+        @Override
+        public void accept(String line, Boolean isStdErr, Instant instant) {
+            if (!this.route(line, isStdErr)) {
+                super.accept(line, isStdErr, instant);
+            }
+        }
+
+        private synchronized boolean route(String line, Boolean isStdErr) {
+            if (this.markerPattern == null) {
+                Matcher start = START_PATTERN.matcher(line.strip());
+                if (!start.matches()) {
+                    return false;
+                }
+
+                this.markerPattern = Pattern.compile("^" + Pattern.quote(MARKER + start.group(1) + "::") + "(begin|end)::(\\d+)(?:::(\\d+))?$");
+                return true;
+            }
+
+            Matcher matcher = this.markerPattern.matcher(line.strip());
+            if (matcher.matches()) {
+                if (!this.emptyLines.isEmpty()) {
+                    this.emptyLines.removeLast();
+                }
+                this.flushEmptyLines();
+
+                int index = Integer.parseInt(matcher.group(2));
+                if (matcher.group(1).equals("begin")) {
+                    this.current = this.sections.get(index);
+                } else {
+                    this.exitCodes.put(index, Integer.parseInt(matcher.group(3)));
+                    this.current = null;
+                }
+                return true;
+            }
+
+            if (!isStdErr && line.isBlank()) {
+                this.emptyLines.add(line);
+                return true;
+            }
+            this.flushEmptyLines();
+
+            if (this.current != null) {
+                this.current.accept(line, isStdErr);
+                return true;
+            }
+
+            return false;
+        }
+
+        private void flushEmptyLines() {
+            for (String emptyLine : this.emptyLines) {
+                if (this.current != null) {
+                    this.current.accept(emptyLine, false);
+                } else {
+                    super.accept(emptyLine, false);
+                }
+            }
+            this.emptyLines.clear();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.kestra.plugin.scripts.shell;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.plugin.scripts.exec.AbstractRealtimeScriptTrigger;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Trigger on events streamed by a long-running shell script",
+    description = "Starts the shell script once (default image ubuntu) and keeps it running. Each ::{\"outputs\":...}:: line it prints is an event; events matching the optional condition emit an execution immediately, without starting a process or container per poll. The script is restarted after restartDelay if it exits."
+)
+@Plugin(
+    examples = {
+        @Example(
+            title = "Emit an execution for each event streamed by a shell script.",
+            full = true,
+            code = """
+                id: shell_realtime_trigger
+                namespace: company.team
+
+                triggers:
+                  - id: watch
+                    type: io.kestra.plugin.scripts.shell.RealtimeTrigger
+                    script: |
+                      while true; do
+                        for f in /data/inbox/*.csv; do
+                          [ -e "$f" ] || continue
+                          mv "$f" /data/processing/
+                          echo "::{\\"outputs\\":{\\"file\\":\\"$(basename "$f")\\"}}::"
+                        done
+                        sleep 0.2
+                      done
+
+                tasks:
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "New file {{ trigger.vars.file }}"
+                """
+        )
+    }
+)
+public class RealtimeTrigger extends AbstractRealtimeScriptTrigger {
+    private static final String DEFAULT_IMAGE = "ubuntu";
+
+    @Schema(
+        title = "Container image for the shell",
+        description = "Defaults to 'ubuntu'; only used by the Docker task runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<String> containerImage = Property.ofValue(DEFAULT_IMAGE);
+
+    @Override
+    protected String scriptExtension() {
+        return ".sh";
+    }
+
+    @Override
+    protected String runCommand(String scriptPath) {
+        return "sh " + scriptPath;
+    }
+}
@@ -30,6 +30,7 @@ import io.kestra.core.utils.TestsUtils;
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -99,6 +100,106 @@ abstract class AbstractBashTest {
         );
     }
 
+    @Test
+    void outputDirsAreUploadedConcurrently() throws Exception {
+        Bash bash = configure(
+            Bash.builder()
+                .outputDirs(Property.ofValue(List.of("shards")))
+                .uploadConcurrency(Property.ofValue(3))
+                .commands(
+                    new String[] {
+                        "for i in $(seq 1 20); do echo \"shard $i\" > {{ outputDirs.shards }}/$i.txt; done",
+                        "mkdir {{ outputDirs.shards }}/nested",
+                        "echo nested > {{ outputDirs.shards }}/nested/last.txt"
+                    }
+                )
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        ScriptOutput run = bash.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getOutputFiles().size(), is(21));
+
+        InputStream get = storageInterface.get(TenantService.MAIN_TENANT, null, run.getOutputFiles().get("shards/7.txt"));
+        assertThat(CharStreams.toString(new InputStreamReader(get)), is("shard 7\n"));
+
+        get = storageInterface.get(TenantService.MAIN_TENANT, null, run.getOutputFiles().get("shards/nested/last.txt"));
+        assertThat(CharStreams.toString(new InputStreamReader(get)), is("nested\n"));
+
+        // 9 files of 8 bytes, 11 files of 9 bytes and one of 7 bytes
+        assertThat(AbstractBashTest.getMetrics(runContext, "outputs.upload.bytes").getValue(), is(178D));
+        assertThat(AbstractBashTest.<Duration> getMetrics(runContext, "outputs.upload.duration").getValue().isNegative(), is(false));
+    }
+
+    @Test
+    void outputDirsCanBeArchivedAndExtractedByMember() throws Exception {
+        Bash bash = configure(
+            Bash.builder()
+                .outputDirs(Property.ofValue(List.of("shards")))
+                .archiveOutputDirs(Property.ofValue(true))
+                .commands(
+                    new String[] {
+                        "for i in $(seq 1 50); do echo \"shard $i\" > {{ outputDirs.shards }}/$i.txt; done",
+                        "mkdir {{ outputDirs.shards }}/nested",
+                        "echo nested > {{ outputDirs.shards }}/nested/last.txt"
+                    }
+                )
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        ScriptOutput run = bash.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getOutputFiles().keySet(), containsInAnyOrder("shards.tar", "shards.manifest.json"));
+
+        Map<String, Object> manifest = JacksonMapper.toMap(CharStreams.toString(new InputStreamReader(
+            storageInterface.get(TenantService.MAIN_TENANT, null, run.getOutputFiles().get("shards.manifest.json"))
+        )));
+        assertThat(((List<?>) manifest.get("members")).size(), is(51));
+        assertThat(((List<?>) manifest.get("members")).contains(Map.of("path", "nested/last.txt", "size", 7)), is(true));
+
+        Bash extract = configure(
+            Bash.builder()
+                .inputFiles(Map.of(
+                    "in/last.txt", run.getOutputFiles().get("shards.tar") + "#nested/last.txt",
+                    "in/7.txt", run.getOutputFiles().get("shards.tar") + "#7.txt"
+                ))
+                .commands(new String[] { "echo '::{\"outputs\": {\"last\":\"'$(cat in/last.txt)'\", \"seventh\":\"'$(cat in/7.txt)'\"}}::'" })
+        ).build();
+
+        run = extract.run(TestsUtils.mockRunContext(runContextFactory, extract, ImmutableMap.of()));
+
+        assertThat(run.getVars().get("last"), is("nested"));
+        assertThat(run.getVars().get("seventh"), is("shard 7"));
+    }
+
+    @Test
+    void chattyScriptLogsAreBatchedAndSampled() throws Exception {
+        Bash bash = configure(
+            Bash.builder()
+                .logBatchSize(Property.ofValue(50))
+                .maxLogLineLength(Property.ofValue(10))
+                .maxLogLinesPerSecond(Property.ofValue(100))
+                .commands(
+                    new String[] {
+                        "for i in $(seq 1 5000); do echo \"line $i with some padding\"; done",
+                        "for i in $(seq 1 10); do >&2 echo \"error $i\"; done",
+                        "echo '::{\"outputs\": {\"done\": true}}::'"
+                    }
+                )
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        ScriptOutput run = bash.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        // every line is counted, even the ones that were not logged
+        assertThat(run.getStdOutLineCount(), is(5001));
+        assertThat(run.getStdErrLineCount(), is(10));
+        assertThat(run.getVars().get("done"), is(true));
+    }
+
     @Test
     void failed() {
         Bash bash = configure(
@@ -209,6 +310,60 @@ abstract class AbstractBashTest {
         assertThat(outputContent, is(fileContent + "\n"));
     }
 
+    @Test
+    void inputFilesFromKestraFsAreStagedConcurrently() throws Exception {
+        URL resource = AbstractBashTest.class.getClassLoader().getResource("application.yml");
+        long size = new File(resource.getPath()).length();
+
+        Map<String, String> files = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            files.put("in/" + i + "/content.txt", putUnique(storageInterface, resource).toString());
+        }
+
+        Bash bash = configure(
+            Bash.builder()
+                .commands(new String[] { "cat in/*/content.txt | wc -c | tr -d ' ' > {{ outputFiles.out }}" })
+                .inputFiles(files)
+                .downloadConcurrency(Property.ofValue(2))
+                .outputFiles(Property.ofValue(Collections.singletonList("out")))
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        ScriptOutput run = bash.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        InputStream get = storageInterface.get(TenantService.MAIN_TENANT, null, run.getOutputFiles().get("out"));
+        assertThat(CharStreams.toString(new InputStreamReader(get)).trim(), is(String.valueOf(5 * size)));
+
+        assertThat(AbstractBashTest.getMetrics(runContext, "inputs.download.bytes").getValue(), is((double) (5 * size)));
+    }
+
+    @Test
+    void cachedInputFilesAreFetchedOncePerWorker() throws Exception {
+        URL resource = AbstractBashTest.class.getClassLoader().getResource("application.yml");
+        String fileContent = String.join("\n", Files.readAllLines(new File(resource.getPath()).toPath(), StandardCharsets.UTF_8));
+        URI put = putUnique(storageInterface, resource);
+
+        for (int i = 0; i < 2; i++) {
+            Bash bash = configure(
+                Bash.builder()
+                    .commands(new String[] { "cat reference.yml > {{ outputFiles.out }}" })
+                    .inputFiles(Map.of("reference.yml", put.toString()))
+                    .cacheInputFiles(Property.ofValue(true))
+                    .outputFiles(Property.ofValue(Collections.singletonList("out")))
+            ).build();
+
+            RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+            ScriptOutput run = bash.run(runContext);
+
+            assertThat(run.getExitCode(), is(0));
+            InputStream get = storageInterface.get(TenantService.MAIN_TENANT, null, run.getOutputFiles().get("out"));
+            assertThat(CharStreams.toString(new InputStreamReader(get)), is(fileContent + "\n"));
+
+            assertThat(AbstractBashTest.getMetrics(runContext, i == 0 ? "inputs.cache.misses" : "inputs.cache.hits").getValue(), is(1D));
+        }
+    }
+
     @Test
     void useInputFilesAsVariable() throws Exception {
         URL resource = AbstractBashTest.class.getClassLoader().getResource("application.yml");
@@ -1,15 +1,22 @@
 package io.kestra.core.tasks.scripts;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import org.junit.jupiter.api.Test;
 import org.junitpioneer.jupiter.RetryingTest;
 
 import com.google.common.collect.ImmutableMap;
 
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
 import io.kestra.plugin.scripts.exec.scripts.models.DockerOptions;
 import io.kestra.plugin.scripts.exec.scripts.models.RunnerType;
@@ -35,6 +42,32 @@ class DockerBashTest extends AbstractBashTest {
             );
     }
 
+    @Test
+    void cachedInputFilesAreCopiedIntoContainers() throws Exception {
+        Path reference = Files.createTempFile("reference", ".txt");
+        Files.writeString(reference, "original");
+        URI put;
+        try (InputStream inputStream = Files.newInputStream(reference)) {
+            put = storageInterface.put(TenantService.MAIN_TENANT, null, URI.create("/" + IdUtils.create() + ".txt"), inputStream);
+        }
+
+        List<String> contents = new ArrayList<>();
+        for (String command : List.of("echo tampered > reference.txt", "true")) {
+            Bash bash = configure(
+                Bash.builder()
+                    .commands(new String[] { command, "echo '::{\"outputs\": {\"content\":\"'$(cat reference.txt)'\"}}::'" })
+                    .inputFiles(Map.of("reference.txt", put.toString()))
+                    .cacheInputFiles(io.kestra.core.models.property.Property.ofValue(true))
+            ).build();
+
+            RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+            contents.add((String) bash.run(runContext).getVars().get("content"));
+        }
+
+        // the container runs as root: a link would have let it rewrite the cached content
+        assertThat(contents, is(List.of("tampered", "original")));
+    }
+
     @RetryingTest(5)
     void volume() throws Exception {
         Path tmpDir = Files.createTempDirectory("tmpDirPrefix");
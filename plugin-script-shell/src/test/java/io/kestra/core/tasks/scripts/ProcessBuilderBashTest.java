@@ -1,6 +1,22 @@
 package io.kestra.core.tasks.scripts;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.utils.Await;
+import io.kestra.core.utils.TestsUtils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 
 @KestraTest
 class ProcessBuilderBashTest extends AbstractBashTest {
@@ -10,4 +26,76 @@ class ProcessBuilderBashTest extends AbstractBashTest {
             .id(this.getClass().getSimpleName())
             .type(Bash.class.getName());
     }
+
+    @Test
+    void killTerminatesTheWholeProcessTree() throws Exception {
+        Bash bash = configure(
+            Bash.builder()
+                .killGracePeriod(Property.ofValue(Duration.ofSeconds(1)))
+                .commands(
+                    new String[] {
+                        // a child ignoring SIGTERM, so it is only stopped by the SIGKILL
+                        "sh -c 'trap \"\" TERM; sleep 300' &",
+                        "echo $! > child.pid",
+                        "wait"
+                    }
+                )
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        Path childPid = runContext.workingDir().path().resolve("child.pid");
+
+        CompletableFuture<ScriptOutput> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bash.run(runContext);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Await.until(() -> {
+            try {
+                return Files.exists(childPid) && !Files.readString(childPid).isBlank();
+            } catch (Exception e) {
+                return false;
+            }
+        }, Duration.ofMillis(50), Duration.ofSeconds(30));
+        long child = Long.parseLong(Files.readString(childPid).trim());
+
+        bash.kill();
+
+        // the SIGKILL is asynchronous
+        Await.until(() -> !isRunning(child), Duration.ofMillis(50), Duration.ofSeconds(10));
+        assertThat(run.handle((output, e) -> e != null).get(), is(true));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("process.termination.duration")), is(true));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("process.termination.forced")), is(true));
+    }
+
+    @Test
+    void pidFileIsKeptOutOfTheWorkingDirectory() throws Exception {
+        Bash bash = configure(
+            Bash.builder()
+                .commands(new String[] {"echo '::{\"outputs\": {\"files\":\"'$(ls -A | tr '\\n' ' ')'\"}}::'"})
+        ).build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, bash, ImmutableMap.of());
+        ScriptOutput run = bash.run(runContext);
+
+        assertThat(run.getExitCode(), is(0));
+        assertThat(run.getVars().get("files").toString().contains(ProcessTreeTerminator.PID_FILE), is(false));
+    }
+
+    private static boolean isRunning(long pid) {
+        // an orphan killed in a container without an init reaping it stays a zombie, which is seen as alive
+        Path stat = Path.of("/proc", String.valueOf(pid), "stat");
+        if (Files.isDirectory(Path.of("/proc"))) {
+            try {
+                String content = Files.readString(stat);
+                return content.charAt(content.lastIndexOf(')') + 2) != 'Z';
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
 }
@@ -1,15 +1,20 @@
 package io.kestra.plugin.scripts.shell;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
 
 import jakarta.inject.Inject;
@@ -69,4 +74,201 @@ class CommandsTriggerTest {
         assertThat("timestamp should be present", triggerVars.get("timestamp"), notNullValue());
         assertThat("vars should be present", triggerVars.get("vars"), notNullValue());
     }
+
+    @Test
+    void commandsTrigger_edgeStateShouldSurviveANewTriggerInstance() throws Exception {
+        String id = "commands-persisted-edge-" + IdUtils.create();
+        CommandsTrigger trigger = persistedEdgeTrigger(id);
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(true));
+
+        // e.g. after a scheduler restart, or on another scheduler node
+        CommandsTrigger reloaded = persistedEdgeTrigger(id);
+        assertThat(reloaded.evaluate(context.getKey(), context.getValue()).isPresent(), is(false));
+    }
+
+    @Test
+    void commandsTrigger_edgeModeShouldEmitAgainWhenVarsChange() throws Exception {
+        CommandsTrigger trigger = edgeTrigger(
+            "commands-vars-change-" + IdUtils.create(),
+            "status=ready",
+            true,
+            "echo '::{\"outputs\":{\"status\":\"ready\",\"at\":\"'$(date +%s%N)'\"}}::'"
+        );
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(true));
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commandsTrigger_batchModeShouldKeepResultsPerTrigger() throws Exception {
+        List<CommandsTrigger> triggers = List.of(
+            batchTrigger("batch-failure", "exit 3", "echo failing", "exit 3"),
+            batchTrigger("batch-vars", "status=ready", "echo '::{\"outputs\":{\"status\":\"ready\"}}::'"),
+            batchTrigger("batch-unmatched", "exit 1", "true")
+        );
+
+        List<CompletableFuture<Optional<Execution>>> evaluations = triggers.stream()
+            .map(trigger -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+                    return trigger.evaluate(context.getKey(), context.getValue());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }))
+            .toList();
+
+        Optional<Execution> failure = evaluations.get(0).get(2, TimeUnit.MINUTES);
+        Optional<Execution> vars = evaluations.get(1).get(2, TimeUnit.MINUTES);
+        Optional<Execution> unmatched = evaluations.get(2).get(2, TimeUnit.MINUTES);
+
+        assertThat(failure.isPresent(), is(true));
+        assertThat(failure.get().getTrigger().getVariables().get("exitCode"), is(3));
+        assertThat(vars.isPresent(), is(true));
+        assertThat(((Map<String, Object>) vars.get().getTrigger().getVariables().get("vars")).get("status"), is("ready"));
+        assertThat(unmatched.isPresent(), is(false));
+    }
+
+    @Test
+    void commandsTrigger_batchKeepsTheExitCodeOfAnOutputWithoutTrailingNewline() throws Exception {
+        List<CommandsTrigger> triggers = List.of(
+            batchTrigger("batch-no-newline", "exit 4", "printf x", "exit 4"),
+            batchTrigger("batch-printf", "exit 0", "printf x")
+        );
+
+        List<CompletableFuture<Optional<Execution>>> evaluations = triggers.stream()
+            .map(trigger -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+                    return trigger.evaluate(context.getKey(), context.getValue());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }))
+            .toList();
+
+        Optional<Execution> failure = evaluations.get(0).get(2, TimeUnit.MINUTES);
+        Optional<Execution> success = evaluations.get(1).get(2, TimeUnit.MINUTES);
+
+        assertThat(failure.isPresent(), is(true));
+        assertThat(failure.get().getTrigger().getVariables().get("exitCode"), is(4));
+        assertThat(success.isPresent(), is(true));
+        assertThat(success.get().getTrigger().getVariables().get("exitCode"), is(0));
+    }
+
+    @Test
+    void commandsTrigger_batchedEvaluationsAreAlignedOnTheInterval() throws Exception {
+        CommandsTrigger trigger = batchTrigger("batch-aligned", "exit 0", "true");
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+        trigger.evaluate(context.getKey(), context.getValue());
+
+        long next = trigger.nextEvaluationDate().toInstant().toEpochMilli();
+        assertThat(next % trigger.getInterval().toMillis(), is(0L));
+        assertThat(next > System.currentTimeMillis(), is(true));
+    }
+
+    @Test
+    void commandsTrigger_batchMarkersCannotBeForged() throws Exception {
+        String fakeNonce = "0".repeat(32);
+        List<CommandsTrigger> triggers = List.of(
+            batchTrigger(
+                "batch-forger", "exit 0",
+                "echo '::kestra-batch::start::" + fakeNonce + "'",
+                "echo '::kestra-batch::" + fakeNonce + "::end::0::0'",
+                "echo '::kestra-batch::" + fakeNonce + "::end::1::0'"
+            ),
+            batchTrigger("batch-victim", "exit 3", "exit 3")
+        );
+
+        List<CompletableFuture<Optional<Execution>>> evaluations = triggers.stream()
+            .map(trigger -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+                    return trigger.evaluate(context.getKey(), context.getValue());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }))
+            .toList();
+
+        Optional<Execution> victim = evaluations.get(1).get(2, TimeUnit.MINUTES);
+
+        assertThat(evaluations.get(0).get(2, TimeUnit.MINUTES).isPresent(), is(true));
+        assertThat(victim.isPresent(), is(true));
+        assertThat(victim.get().getTrigger().getVariables().get("exitCode"), is(3));
+    }
+
+    @Test
+    void commandsTrigger_batchFollowersFailWhenTheLeaderIsInterrupted() throws Exception {
+        List<String> group = List.of(IdUtils.create());
+        RunContext runContext = runContextFactory.of();
+        CommandsTriggerBatch.Runner runner = (script, sections, logConsumer) -> {
+            throw new IllegalStateException("the batch must not run");
+        };
+
+        Thread leader = new Thread(() -> {
+            try {
+                CommandsTriggerBatch.submit(group, Duration.ofMinutes(1), Duration.ofMinutes(1), runContext, List.of("true"), runner);
+            } catch (Exception ignored) {
+                // interrupted
+            }
+        });
+        leader.start();
+        // let the leader open the batch before joining it
+        Thread.sleep(500);
+
+        CompletableFuture<CommandsTriggerBatch.Result> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return CommandsTriggerBatch.submit(group, Duration.ofMinutes(1), Duration.ofMinutes(1), runContext, List.of("true"), runner);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(500);
+        leader.interrupt();
+
+        assertThat(follower.handle((result, e) -> e != null).get(10, TimeUnit.SECONDS), is(true));
+        leader.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static CommandsTrigger batchTrigger(String id, String exitCondition, String... commands) {
+        return CommandsTrigger.builder()
+            .id(id + "-" + IdUtils.create())
+            .type(CommandsTrigger.class.getName())
+            .exitCondition(Property.ofValue(exitCondition))
+            .batch(Property.ofValue(true))
+            .batchWindow(Property.ofValue(Duration.ofSeconds(2)))
+            .containerImage(Property.ofValue("ubuntu"))
+            .commands(Property.ofValue(List.of(commands)))
+            .build();
+    }
+
+    private static CommandsTrigger persistedEdgeTrigger(String id) {
+        return CommandsTrigger.builder()
+            .id(id)
+            .type(CommandsTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 1"))
+            .edge(Property.ofValue(true))
+            .persistState(Property.ofValue(true))
+            .containerImage(Property.ofValue("ubuntu"))
+            .commands(Property.ofValue(List.of("exit 1")))
+            .build();
+    }
+
+    private static CommandsTrigger edgeTrigger(String id, String exitCondition, boolean emitOnVarsChange, String command) {
+        return CommandsTrigger.builder()
+            .id(id)
+            .type(CommandsTrigger.class.getName())
+            .exitCondition(Property.ofValue(exitCondition))
+            .edge(Property.ofValue(true))
+            .emitOnVarsChange(Property.ofValue(emitOnVarsChange))
+            .containerImage(Property.ofValue("ubuntu"))
+            .commands(Property.ofValue(List.of(command)))
+            .build();
+    }
 }
@@ -0,0 +1,88 @@
+package io.kestra.plugin.scripts.shell;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.core.runner.Process;
+
+import jakarta.inject.Inject;
+import reactor.core.publisher.Flux;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class RealtimeTriggerTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldEmitAnExecutionPerMatchingEvent() throws Exception {
+        RealtimeTrigger trigger = RealtimeTrigger.builder()
+            .id("realtime-trigger")
+            .type(RealtimeTrigger.class.getName())
+            .taskRunner(Process.instance())
+            .condition(Property.ofValue("order"))
+            .script(Property.ofValue("""
+                echo '::{"outputs":{"kind":"heartbeat"}}::'
+                echo '::{"outputs":{"kind":"order","id":1}}::'
+                sleep 0.2
+                echo '::{"outputs":{"kind":"order","id":2}}::'
+                sleep 60
+                """))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        try {
+            List<Execution> executions = Flux.from(trigger.evaluate(context.getKey(), context.getValue()))
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+            assertThat(executions, hasSize(2));
+
+            Map<String, Object> vars = (Map<String, Object>) executions.getFirst().getTrigger().getVariables().get("vars");
+            assertThat(vars.get("kind"), is("order"));
+            assertThat(vars.get("id"), is(1));
+            assertThat(((Map<String, Object>) executions.get(1).getTrigger().getVariables().get("vars")).get("id"), is(2));
+        } finally {
+            trigger.kill();
+        }
+    }
+
+    @Test
+    void shouldRejectTheChangedCondition() throws Exception {
+        RealtimeTrigger trigger = RealtimeTrigger.builder()
+            .id("realtime-trigger-changed")
+            .type(RealtimeTrigger.class.getName())
+            .taskRunner(Process.instance())
+            .condition(Property.ofValue("changed"))
+            .script(Property.ofValue("sleep 60"))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        try {
+            IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> Flux.from(trigger.evaluate(context.getKey(), context.getValue())).blockFirst(Duration.ofSeconds(30))
+            );
+            assertThat(e.getMessage(), containsString("changed"));
+        } finally {
+            trigger.kill();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package io.kestra.plugin.scripts.shell;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Map;
 import java.util.Optional;
 
@@ -8,13 +12,25 @@ import org.junit.jupiter.api.Test;
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.executions.Execution;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.Await;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
+import io.kestra.plugin.core.runner.Process;
+import io.kestra.plugin.scripts.exec.AbstractScriptTrigger;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
 
 import jakarta.inject.Inject;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 
 @KestraTest
@@ -45,6 +61,26 @@ class ScriptTriggerTest {
         assertThat("timestamp should be present", triggerVars.get("timestamp"), notNullValue());
     }
 
+    @Test
+    void scriptTrigger_shouldRecordEvaluationMetrics() throws Exception {
+        ScriptTrigger trigger = ScriptTrigger.builder()
+            .id("script-metrics-trigger-" + IdUtils.create())
+            .type(ScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 1"))
+            .edge(Property.ofValue(true))
+            .containerImage(Property.ofValue("ubuntu"))
+            .script(Property.ofValue("exit 1"))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(true));
+
+        RunContext runContext = context.getKey().getRunContext();
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("trigger.evaluation.duration")), is(true));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("trigger.evaluations") && "true".equals(metric.getTags().get("matched"))), is(true));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("trigger.exit.code") && "1".equals(metric.getTags().get("exitCode"))), is(true));
+    }
+
     @Test
     void scriptTrigger_shouldTriggerOnStdoutMatchViaOutputsConvention() throws Exception {
         ScriptTrigger trigger = ScriptTrigger.builder()
@@ -68,4 +104,155 @@ class ScriptTriggerTest {
         assertThat("timestamp should be present", triggerVars.get("timestamp"), notNullValue());
         assertThat("vars should be present", triggerVars.get("vars"), notNullValue());
     }
+
+    @Test
+    void scriptTrigger_shouldBackOffWhileUnmatchedAndFollowNextPollAfter() throws Exception {
+        ScriptTrigger trigger = ScriptTrigger.builder()
+            .id("script-adaptive-trigger")
+            .type(ScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 1"))
+            .interval(Duration.ofSeconds(10))
+            .maxInterval(Duration.ofSeconds(30))
+            .containerImage(Property.ofValue("ubuntu"))
+            .script(Property.ofValue("echo '::{\"outputs\":{\"status\":\"waiting\"}}::'"))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        trigger.evaluate(context.getKey(), context.getValue());
+        assertThat(secondsUntil(trigger.nextEvaluationDate()), is(20L));
+
+        trigger.evaluate(context.getKey(), context.getValue());
+        assertThat(secondsUntil(trigger.nextEvaluationDate()), is(30L));
+
+        ScriptTrigger hinted = ScriptTrigger.builder()
+            .id("script-hinted-trigger")
+            .type(ScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 1"))
+            .interval(Duration.ofSeconds(10))
+            .containerImage(Property.ofValue("ubuntu"))
+            .script(Property.ofValue("echo '::{\"outputs\":{\"nextPollAfter\":\"PT5M\"}}::'"))
+            .build();
+
+        hinted.evaluate(context.getKey(), context.getValue());
+        assertThat(secondsUntil(hinted.nextEvaluationDate()), is(300L));
+    }
+
+    @Test
+    void scriptTrigger_shouldKillAnEvaluationPastItsTimeout() throws Exception {
+        ScriptTrigger trigger = ScriptTrigger.builder()
+            .id("script-timeout-trigger")
+            .type(ScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 0"))
+            .evaluationTimeout(Property.ofValue(Duration.ofSeconds(2)))
+            .containerImage(Property.ofValue("ubuntu"))
+            .script(Property.ofValue("sleep 120"))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        long start = System.nanoTime();
+        Optional<Execution> execution = trigger.evaluate(context.getKey(), context.getValue());
+
+        assertThat(execution.isPresent(), is(false));
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toSeconds(), lessThan(60L));
+
+        RunContext runContext = context.getKey().getRunContext();
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("trigger.evaluation.timeouts")), is(true));
+    }
+
+    @Test
+    void scriptTrigger_shouldKillTheProcessOfATimedOutEvaluation() throws Exception {
+        Path pidFile = Files.createTempFile("script-trigger", ".pid");
+        ProcessScriptTrigger trigger = ProcessScriptTrigger.builder()
+            .id("script-timeout-process-trigger")
+            .type(ProcessScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("exit 0"))
+            .evaluationTimeout(Property.ofValue(Duration.ofSeconds(2)))
+            .script(Property.ofValue("echo $$ > '" + pidFile + "'\nexec sleep 120"))
+            .build();
+
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(false));
+
+        long pid = Long.parseLong(Files.readString(pidFile).trim());
+        Await.until(() -> !isRunning(pid), Duration.ofMillis(50), Duration.ofSeconds(10));
+        RunContext runContext = context.getKey().getRunContext();
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("trigger.evaluation.timeouts")), is(true));
+    }
+
+    @Test
+    void scriptTrigger_changedShouldEmitOnlyWhenTheOutputFileChanges() throws Exception {
+        String id = "script-changed-trigger-" + IdUtils.create();
+        ScriptTrigger trigger = changeTrigger(id, "echo first > status.txt");
+        var context = TestsUtils.mockTrigger(runContextFactory, trigger);
+
+        // the first poll only records the digest
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(false));
+        assertThat(trigger.evaluate(context.getKey(), context.getValue()).isPresent(), is(false));
+
+        ScriptTrigger updated = changeTrigger(id, "echo second > status.txt");
+        assertThat(updated.evaluate(context.getKey(), context.getValue()).isPresent(), is(true));
+        assertThat(updated.evaluate(context.getKey(), context.getValue()).isPresent(), is(false));
+    }
+
+    private static ScriptTrigger changeTrigger(String id, String script) {
+        return ScriptTrigger.builder()
+            .id(id)
+            .type(ScriptTrigger.class.getName())
+            .exitCondition(Property.ofValue("changed"))
+            .changeFile(Property.ofValue("status.txt"))
+            .containerImage(Property.ofValue("ubuntu"))
+            .script(Property.ofValue(script))
+            .build();
+    }
+
+    private static long secondsUntil(ZonedDateTime date) {
+        // the evaluation date is truncated to the second
+        return (long) Math.ceil(Duration.between(ZonedDateTime.now(), date).toMillis() / 1000.0);
+    }
+
+    private static boolean isRunning(long pid) {
+        // a killed process not reaped yet stays a zombie, which is seen as alive
+        Path stat = Path.of("/proc", String.valueOf(pid), "stat");
+        if (Files.isDirectory(Path.of("/proc"))) {
+            try {
+                String content = Files.readString(stat);
+                return content.charAt(content.lastIndexOf(')') + 2) != 'Z';
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    /**
+     * A script trigger running its script with the {@code Process} task runner.
+     */
+    @SuperBuilder
+    @Getter
+    @NoArgsConstructor
+    static class ProcessScriptTrigger extends AbstractScriptTrigger {
+        private Property<String> script;
+
+        private Property<String> exitCondition;
+
+        @Builder.Default
+        private Property<Boolean> edge = Property.ofValue(false);
+
+        @Builder.Default
+        private Duration interval = Duration.ofSeconds(60);
+
+        @Override
+        protected RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) {
+            return Script.builder()
+                .id(this.getId())
+                .type(Script.class.getName())
+                .taskRunner(Process.instance())
+                .script(this.script)
+                .build();
+        }
+    }
 }
@@ -5,7 +5,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -13,6 +15,7 @@ import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.OutputFilesInterface;
+import io.kestra.core.models.tasks.RunnableTaskException;
 import io.kestra.core.models.tasks.Task;
 import io.kestra.core.models.tasks.runners.PluginUtilsService;
 import io.kestra.core.models.tasks.runners.ScriptService;
@@ -30,7 +33,6 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import static io.kestra.core.utils.Rethrow.throwBiConsumer;
-import static io.kestra.core.utils.Rethrow.throwConsumer;
 
 @SuperBuilder
 @ToString
@@ -118,6 +120,20 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
     @PluginProperty(group = "advanced")
     protected Property<List<String>> outputDirs;
 
+    @Builder.Default
+    @Schema(
+        title = "Upload each output directory as a single archive",
+        description = "When enabled, each entry of `outputDirs` is packed into a tar archive and uploaded as one file, " +
+            "referenced as `{{ outputs.taskId.outputFiles['myDir.tar'] }}`, instead of one file per member. " +
+            "The archive starts with a `.kestra-manifest.json` entry listing the path and size of each member; the same " +
+            "manifest is uploaded as `{{ outputs.taskId.outputFiles['myDir.manifest.json'] }}`.\n" +
+            "A single member can be extracted by another script task by using the archive URI with the member path as " +
+            "fragment as an input file value, e.g. `\"{{ outputs.taskId.outputFiles['myDir.tar'] }}#sub/file1.txt\"`."
+    )
+    @NotNull
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> archiveOutputDirs = Property.ofValue(false);
+
     @Schema(
         title = "Input files are extra files that will be available in the script's working directory",
         description = "Define the files **as a map** of a file name being the key, and the value being the file's content.\n" +
@@ -131,12 +147,69 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
     )
     protected Object inputFiles;
 
+    @Builder.Default
+    @Schema(
+        title = "Maximum number of input files downloaded concurrently from Kestra's internal storage",
+        description = "Input files referencing Kestra's internal storage are streamed to the working directory before the script starts."
+    )
+    @NotNull
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> downloadConcurrency = Property.ofValue(4);
+
+    @Builder.Default
+    @Schema(
+        title = "Cache the input files from Kestra's internal storage on the worker",
+        description = "When enabled, input files referencing Kestra's internal storage are fetched once per worker and " +
+            "hard-linked into the working directory of each task run, e.g. for a reference dataset used by many tasks. " +
+            "Cached files are read-only: scripts can replace them but must not modify them in place. " +
+            "With the `DOCKER` runner, they are copied into the working directory instead of being linked. " +
+            "Namespace files are never cached, and the least recently used files are evicted past 10 GiB."
+    )
+    @NotNull
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> cacheInputFiles = Property.ofValue(false);
+
     @Schema(
         title = "One or more additional environment variable(s) to add to the task run"
     )
     @PluginProperty(group = "execution")
     protected Property<Map<String, String>> env;
 
+    @Builder.Default
+    @Schema(
+        title = "Maximum number of output files uploaded concurrently to Kestra's internal storage",
+        description = "Output files, and the files of output directories, are uploaded once the script has ended. " +
+            "Uploading them concurrently shortens this phase for scripts producing many files."
+    )
+    @NotNull
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> uploadConcurrency = Property.ofValue(4);
+
+    @Builder.Default
+    @Schema(
+        title = "Maximum number of consecutive log lines sent as a single log entry",
+        description = "Consecutive lines of the same stream are grouped into one multi-line log entry, sent at least every second. " +
+            "Grouping lines lowers the cost of chatty scripts; `1` sends each line on its own."
+    )
+    @NotNull
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> logBatchSize = Property.ofValue(1);
+
+    @Schema(
+        title = "Maximum length of a log line",
+        description = "Longer lines are truncated. Lines sending outputs and metrics (`::{...}::`) are never truncated."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxLogLineLength;
+
+    @Schema(
+        title = "Maximum number of log lines sent per second",
+        description = "Past this rate, the lines are dropped and the number of dropped lines is logged instead. " +
+            "The line counts and the outputs and metrics sent by the script are not affected."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> maxLogLinesPerSecond;
+
     @Schema(
         title = "Not used anymore, will be removed soon"
     )
@@ -144,9 +217,24 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
     @PluginProperty(group = "advanced")
     protected Property<Boolean> warningOnStdErr;
 
+    @Schema(
+        title = "Grace period given to the script processes to exit when the task is killed",
+        description = "On kill, the script and every process it started receive a SIGTERM, then a SIGKILL once the grace period is over. " +
+            "With the `DOCKER` runner, the container is stopped by the runner."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> killGracePeriod = Property.ofValue(Duration.ofSeconds(10));
+
     @Getter(AccessLevel.NONE)
     protected transient Path workingDirectory;
 
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<ProcessTreeTerminator> running = new AtomicReference<>();
+
     @Builder.Default
     @Getter(AccessLevel.NONE)
     protected transient Map<String, Object> additionalVars = new HashMap<>();
@@ -168,6 +256,13 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
         return this.inputFiles != null ? new HashMap<>(PluginUtilsService.transformInputFiles(runContext, additionalVars, this.inputFiles)) : new HashMap<>();
     }
 
+    /**
+     * @return the names of the helper resources staged at the root of the working directory, e.g. {@code kestra.py}
+     */
+    protected List<String> helperResources() {
+        return List.of();
+    }
+
     protected Map<String, String> finalEnv(RunContext runContext) throws IOException, IllegalVariableEvaluationException {
         var rEnv = runContext.render(this.env).asMap(String.class, String.class);
         return !rEnv.isEmpty() ? new HashMap<>(rEnv) : new HashMap<>();
@@ -205,13 +300,30 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
             additionalVars
         );
 
+        RunnerType runnerType = runContext.render(this.runner).as(RunnerType.class).orElseThrow();
+
+        Map<String, String> inputFiles = this.finalInputFiles(runContext, additionalVars);
+        // files from the internal storage are streamed to disk concurrently, only inline contents are left
+        InputStager.stage(
+            runContext,
+            workingDirectory,
+            inputFiles,
+            runContext.render(this.downloadConcurrency).as(Integer.class).orElseThrow(),
+            runContext.render(this.cacheInputFiles).as(Boolean.class).orElseThrow() ? InputCache.of(runContext) : null,
+            // a container running as root could write through a link into the cache
+            runnerType == RunnerType.PROCESS
+        );
+
         PluginUtilsService.createInputFiles(
             runContext,
             workingDirectory,
-            this.finalInputFiles(runContext, additionalVars),
+            inputFiles,
             additionalVars
         );
 
+        // linked from a shared copy instead of being rendered and written on each run, copied for the containers
+        HelperResources.stage(runContext, this.getClass(), workingDirectory, this.helperResources(), runnerType == RunnerType.PROCESS);
+
         List<String> allOutputDirs = new ArrayList<>();
 
         var rOutputDirs = runContext.render(this.outputDirs).asList(String.class);
@@ -226,34 +338,73 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
             true
         );
 
+        // the pid of the shell, to terminate the processes started by the script on kill
+        Path pidFile = runnerType == RunnerType.PROCESS ? ProcessTreeTerminator.createPidFile() : null;
+
         List<String> commandsArgs = ScriptService.scriptCommands(
             this.finalInterpreter(runContext),
             List.of(),
-            commandsSupplier.get()
+            pidFile != null ? ProcessTreeTerminator.pidCommand(pidFile) + "\n" + commandsSupplier.get() : commandsSupplier.get()
         );
 
-        var taskRunner = switch (runContext.render(this.runner).as(RunnerType.class).orElseThrow()) {
+        var taskRunner = switch (runnerType) {
             case DOCKER -> Docker.from(this.getDockerOptions()).toBuilder().fileHandlingStrategy(Property.ofValue(Docker.FileHandlingStrategy.MOUNT)).build();
             case PROCESS -> Process.instance();
         };
 
-        ScriptOutput run = new CommandsWrapper(runContext)
-            .withEnv(this.finalEnv(runContext))
-            .withTaskRunner(taskRunner)
-            .withCommands(Property.ofValue(commandsArgs))
-            .withOutputFiles(allOutputs)
-            .addAdditionalVars(this.additionalVars)
-            .run();
+        Map<String, String> env = this.finalEnv(runContext);
+        // script helpers send outputs & metrics through this file instead of stdout when it's advertised; containers
+        // only see the working directory, so they keep using stdout
+        Path sideChannel = runnerType == RunnerType.PROCESS ? OutputSideChannel.create() : null;
+        if (sideChannel != null) {
+            env.put(OutputSideChannel.ENV, sideChannel.toString());
+        }
+
+        ScriptOutput run;
+        Map<String, Object> sideChannelOutputs;
+        try (ScriptLogConsumer logConsumer = new ScriptLogConsumer(
+            runContext,
+            runContext.render(this.logBatchSize).as(Integer.class).orElseThrow(),
+            runContext.render(this.maxLogLineLength).as(Integer.class).orElse(null),
+            runContext.render(this.maxLogLinesPerSecond).as(Integer.class).orElse(null)
+        )) {
+            this.running.set(new ProcessTreeTerminator(
+                runContext,
+                taskRunner,
+                pidFile,
+                runContext.render(this.killGracePeriod).as(Duration.class).orElseThrow()
+            ));
+
+            try {
+                run = new CommandsWrapper(runContext)
+                    .withEnv(env)
+                    .withTaskRunner(taskRunner)
+                    .withCommands(Property.ofValue(commandsArgs))
+                    .withOutputFiles(allOutputs)
+                    .withLogConsumer(logConsumer)
+                    .addAdditionalVars(this.additionalVars)
+                    .run();
+            } catch (RunnableTaskException e) {
+                OutputSideChannel.read(runContext, sideChannel, e);
+                throw e;
+            }
+            sideChannelOutputs = OutputSideChannel.read(runContext, sideChannel);
+        } finally {
+            this.running.set(null);
+            OutputSideChannel.delete(sideChannel);
+            ProcessTreeTerminator.deletePidFile(pidFile);
+        }
 
         // upload output files to storage
-        Map<String, URI> uploaded = new HashMap<>();
+        OutputUploader uploader = new OutputUploader(runContext, runContext.render(this.uploadConcurrency).as(Integer.class).orElseThrow());
+        boolean archiveOutputDirs = runContext.render(this.archiveOutputDirs).as(Boolean.class).orElseThrow();
 
         // upload regular output files
         outputFilePaths.forEach(throwBiConsumer((key, filePath) ->
         {
             File file = new File(runContext.render(filePath, additionalVars));
             if (file.exists() && file.isFile()) {
-                uploaded.put(key, runContext.storage().putFile(file));
+                uploader.add(key, file, null);
             } else {
                 runContext.logger().debug("Output file not found or is not a file: {}", file.getAbsolutePath());
             }
@@ -263,40 +414,67 @@ public abstract class AbstractBash extends Task implements OutputFilesInterface
         outputDirPaths.forEach(throwBiConsumer((key, dirPath) ->
         {
             File dir = new File(runContext.render(dirPath, additionalVars));
-            if (dir.exists() && dir.isDirectory()) {
+            if (dir.exists() && dir.isDirectory() && archiveOutputDirs) {
+                List<OutputArchive.Member> members = OutputArchive.members(dir.toPath());
+                byte[] manifest = OutputArchive.manifest(members);
+                runContext.logger().debug("Packing {} files of the output directory '{}'", members.size(), key);
+
+                // the archive is streamed to the storage as it is written, not staged on disk
+                uploader.add(
+                    key + OutputArchive.ARCHIVE_SUFFIX,
+                    key + OutputArchive.ARCHIVE_SUFFIX,
+                    outputStream -> OutputArchive.write(dir.toPath(), members, manifest, outputStream)
+                );
+                uploader.add(key + OutputArchive.MANIFEST_SUFFIX, key + OutputArchive.MANIFEST_SUFFIX, outputStream -> outputStream.write(manifest));
+            } else if (dir.exists() && dir.isDirectory()) {
                 try (Stream<Path> walk = Files.walk(dir.toPath())) {
                     walk
                         .filter(Files::isRegularFile)
-                        .forEach(throwConsumer(path ->
+                        .forEach(path ->
                         {
                             String filename = Path.of(
                                 key,
                                 dir.toPath().relativize(path).toString()
                             ).toString();
 
-                            uploaded.put(
-                                filename,
-                                runContext.storage().putFile(path.toFile(), filename)
-                            );
-                        }));
+                            uploader.add(filename, path.toFile(), filename);
+                        });
                 } catch (IOException e) {
                     runContext.logger().warn("Failed to walk directory: {}", dir.getAbsolutePath(), e);
                 }
             }
         }));
 
+        Map<String, URI> uploaded = uploader.upload();
+
         // include files that CommandsWrapper may have uploaded
         if (run.getOutputFiles() != null) {
             uploaded.putAll(run.getOutputFiles());
         }
 
+        Map<String, Object> vars = new HashMap<>();
+        if (run.getVars() != null) {
+            vars.putAll(run.getVars());
+        }
+        vars.putAll(sideChannelOutputs);
+
         return io.kestra.core.tasks.scripts.ScriptOutput.builder()
             .exitCode(run.getExitCode())
             .stdOutLineCount(run.getStdOutLineCount())
             .stdErrLineCount(run.getStdErrLineCount())
-            .vars(run.getVars())
+            .vars(vars)
             .files(uploaded)
             .outputFiles(uploaded)
             .build();
     }
+
+    /**
+     * Terminates the running script and every process it started, see {@link #killGracePeriod}.
+     */
+    public void kill() {
+        ProcessTreeTerminator terminator = this.running.getAndSet(null);
+        if (terminator != null) {
+            terminator.terminate();
+        }
+    }
 }
\ No newline at end of file
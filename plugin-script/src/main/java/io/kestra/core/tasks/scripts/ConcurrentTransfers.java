@@ -0,0 +1,69 @@
+package io.kestra.core.tasks.scripts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs file transfers between the working directory and the internal storage with a bounded concurrency.
+ * <p>
+ * The pool only lives for a single batch of transfers, so no thread outlives the task run.
+ */
+final class ConcurrentTransfers {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private ConcurrentTransfers() {}
+
+    /**
+     * Runs the transfers, stopping at the first failure.
+     *
+     * @param name the name of the transfers, used for the thread names
+     * @param concurrency the maximum number of concurrent transfers, at least 1
+     * @param transfers the transfers
+     * @return the result of each transfer, in the order of the transfers
+     */
+    static <T> List<T> run(String name, int concurrency, List<Callable<T>> transfers) throws Exception {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The " + name + " concurrency must be at least 1, got " + concurrency);
+        }
+
+        List<T> results = new ArrayList<>(transfers.size());
+        if (transfers.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, transfers.size()), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<T>> futures = new ArrayList<>(transfers.size());
+            for (Callable<T> transfer : transfers) {
+                futures.add(executor.submit(transfer));
+            }
+
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            // pending transfers are useless once one of them failed
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+}
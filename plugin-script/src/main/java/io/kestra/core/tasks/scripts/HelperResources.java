@@ -0,0 +1,131 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * The helper modules shipped with the script plugins as classpath resources, e.g. {@code kestra.py} or
+ * {@code kestra.js}.
+ * <p>
+ * Each resource is read once for the plugin class reading it, so a reloaded plugin reads its new version, and kept
+ * as immutable bytes.
+ * <p>
+ * To stage a helper into a working directory, the resource is written once into a shared directory next to the
+ * working directories, named after the SHA-256 of its content and made read-only, then hard linked into each working
+ * directory. The helper is copied when it can't be linked, e.g. across file systems, and always for the container
+ * runners: a container running as root ignores the read-only mode, and would rewrite the shared copy through the link.
+ */
+public final class HelperResources {
+    private static final String HELPERS_DIR = "kestra-helpers";
+
+    private static final ClassValue<Map<String, Resource>> RESOURCES = new ClassValue<>() {
+        @Override
+        protected Map<String, Resource> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private record Resource(byte[] content, String digest) {}
+
+    private HelperResources() {}
+
+    /**
+     * @param owner a class of the plugin shipping the resource, whose class loader reads it
+     * @param name the name of the resource
+     * @return the content of the resource
+     */
+    public static byte[] load(Class<?> owner, String name) {
+        return resource(owner, name).content().clone();
+    }
+
+    /**
+     * Stages helper resources into a working directory, replacing any file with the same name.
+     *
+     * @param runContext the run context
+     * @param owner a class of the plugin shipping the resources, whose class loader reads them
+     * @param workingDirectory the working directory
+     * @param names the names of the resources, staged at the root of the working directory
+     * @param link whether the resources may be hard linked, only when the script runs as a worker process
+     */
+    public static void stage(RunContext runContext, Class<?> owner, Path workingDirectory, Iterable<String> names, boolean link) throws IOException {
+        // the parent of the working dir outlives the working dirs, as for the input files cache
+        stage(runContext.workingDir().path().getParent().resolve(HELPERS_DIR), owner, workingDirectory, names, link);
+    }
+
+    static void stage(Path helpers, Class<?> owner, Path workingDirectory, Iterable<String> names, boolean link) throws IOException {
+        for (String name : names) {
+            Resource resource = resource(owner, name);
+            Path target = workingDirectory.resolve(name);
+            Files.deleteIfExists(target);
+
+            if (!link) {
+                Files.write(target, resource.content());
+                continue;
+            }
+
+            Path shared = shared(helpers, name, resource);
+            try {
+                Files.createLink(target, shared);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.write(target, resource.content());
+            }
+        }
+    }
+
+    private static Resource resource(Class<?> owner, String name) {
+        // the map belongs to the class, so the cache never keeps a class loader alive
+        return RESOURCES.get(owner).computeIfAbsent(name, n -> read(owner, n));
+    }
+
+    private static Resource read(Class<?> owner, String name) {
+        try (InputStream inputStream = owner.getClassLoader().getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new KestraRuntimeException("Missing helper resource '" + name + "'");
+            }
+
+            byte[] content = inputStream.readAllBytes();
+            return new Resource(content, HexFormat.of().formatHex(sha256().digest(content)));
+        } catch (IOException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+
+    private static Path shared(Path helpers, String name, Resource resource) throws IOException {
+        Path shared = helpers.resolve(resource.digest()).resolve(name);
+        if (Files.exists(shared)) {
+            return shared;
+        }
+
+        // written aside then moved, so that concurrent task runs never link a partial file
+        Files.createDirectories(shared.getParent());
+        Path temp = Files.createTempFile(shared.getParent(), name, ".tmp");
+        try {
+            Files.write(temp, resource.content());
+            temp.toFile().setReadOnly();
+            Files.move(temp, shared, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return shared;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Worker-local, content-addressed cache of the input files fetched from the internal storage.
+ * <p>
+ * Each fetched file is stored once under the SHA-256 of its content, and an index maps the storage URIs to these
+ * contents, so a file referenced by many task runs is only fetched once per worker, and identical contents under
+ * different URIs are only stored once. The index is keyed by tenant, and every hit is checked against the storage of
+ * the task run first, so a task run is never served a file it could not read from the storage itself.
+ * <p>
+ * For scripts running as the worker user, cached files are materialized in the working directories as hard links,
+ * falling back to a copy when the working directory is on another file system. Cached files are read-only, so a
+ * script can replace its inputs but not modify the cached content through a link. Containers may run as root, which
+ * ignores the read-only mode, so their inputs are always copied.
+ * <p>
+ * Namespace files are never cached since they can be overwritten under the same URI; the other storage objects are
+ * written once. The least recently used contents are evicted once the cache exceeds {@link #MAX_SIZE}.
+ * <p>
+ * The index lives in memory, so each worker process uses its own cache directory, and the directories of the
+ * processes that are gone are deleted the first time the cache is used.
+ */
+final class InputCache {
+    static final long MAX_SIZE = 10L * 1024 * 1024 * 1024;
+
+    private static final String CACHE_DIR = "kestra-input-cache";
+    private static final String NAMESPACE_FILES = "/_files/";
+    private static final Map<Path, InputCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long maxSize;
+    private final Map<String, CompletableFuture<String>> fetching = new ConcurrentHashMap<>();
+    private final Map<String, String> digests = new HashMap<>();
+    // access-ordered, so the first entry is the least recently used content
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    InputCache(Path directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * @return the cache of the worker running the given run context
+     */
+    static InputCache of(RunContext runContext) {
+        // the parent of the working dir outlives the working dirs, as for the python environments cache
+        Path root = runContext.workingDir().path().getParent().resolve(CACHE_DIR);
+
+        return INSTANCES.computeIfAbsent(root, path -> {
+            try {
+                deleteStaleDirectories(path);
+                return new InputCache(path.resolve(String.valueOf(ProcessHandle.current().pid())), MAX_SIZE);
+            } catch (IOException e) {
+                throw new KestraRuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * @param uri a storage URI
+     * @return whether the content of the URI can be cached
+     */
+    static boolean isCacheable(URI uri) {
+        return uri.getPath() != null && !uri.getPath().contains(NAMESPACE_FILES);
+    }
+
+    /**
+     * Materializes the content of a storage URI into a file, fetching it only when it is not cached yet.
+     *
+     * @param runContext the run context
+     * @param uri the storage URI
+     * @param target the file to create
+     * @param link whether the file can be a hard link to the cached content, only when the script can't write through
+     * a read-only file
+     * @return the size of the content
+     */
+    long materialize(RunContext runContext, URI uri, Path target, boolean link) throws Exception {
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+
+        String key = key(runContext, uri);
+        Path content = this.content(runContext, key, uri);
+        if (!link) {
+            this.copy(runContext, key, uri, content, target);
+        } else if (!this.link(content, target)) {
+            if (!Files.exists(content)) {
+                // evicted since it was looked up, it is fetched again
+                content = this.content(runContext, key, uri);
+            }
+
+            if (!this.link(content, target)) {
+                this.copy(runContext, key, uri, content, target);
+            }
+        }
+
+        return Files.size(target);
+    }
+
+    private void copy(RunContext runContext, String key, URI uri, Path content, Path target) throws Exception {
+        try {
+            Files.copy(content, target);
+        } catch (NoSuchFileException e) {
+            // evicted since it was looked up, it is fetched again
+            Files.copy(this.content(runContext, key, uri), target);
+        }
+    }
+
+    private static String key(RunContext runContext, URI uri) {
+        // the same URI may exist in each tenant
+        return runContext.flowInfo().tenantId() + "|" + uri;
+    }
+
+    private Path content(RunContext runContext, String key, URI uri) throws Exception {
+        String cached;
+        synchronized (this) {
+            String digest = this.digests.get(key);
+            cached = digest != null && this.sizes.get(digest) != null && Files.exists(this.path(digest)) ? digest : null;
+        }
+
+        // the storage checks that the task run can access the file, as it would on a fetch
+        if (cached != null && runContext.storage().isFileExist(uri)) {
+            runContext.metric(Counter.of("inputs.cache.hits", 1));
+            return this.path(cached);
+        }
+
+        CompletableFuture<String> fetch = new CompletableFuture<>();
+        CompletableFuture<String> existing = this.fetching.putIfAbsent(key, fetch);
+        if (existing != null) {
+            // another task run is already fetching the same URI, which this one must be allowed to read as well
+            String digest = join(existing);
+            return runContext.storage().isFileExist(uri) ? this.path(digest) : this.path(this.fetch(runContext, key, uri));
+        }
+
+        runContext.metric(Counter.of("inputs.cache.misses", 1));
+        try {
+            String digest = this.fetch(runContext, key, uri);
+            fetch.complete(digest);
+            return this.path(digest);
+        } catch (Exception e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.fetching.remove(key, fetch);
+        }
+    }
+
+    private String fetch(RunContext runContext, String key, URI uri) throws IOException {
+        Path temp = this.directory.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest messageDigest = sha256();
+
+        try {
+            try (
+                InputStream inputStream = new DigestInputStream(runContext.storage().getFile(uri), messageDigest);
+                OutputStream outputStream = Files.newOutputStream(temp)
+            ) {
+                inputStream.transferTo(outputStream);
+            }
+
+            String digest = HexFormat.of().formatHex(messageDigest.digest());
+            long contentSize = Files.size(temp);
+
+            synchronized (this) {
+                Path content = this.path(digest);
+                if (this.sizes.containsKey(digest) && Files.exists(content)) {
+                    // same content under another URI
+                    Files.delete(temp);
+                } else {
+                    temp.toFile().setReadOnly();
+                    Files.move(temp, content, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Long previous = this.sizes.put(digest, contentSize);
+                    this.size += contentSize - (previous != null ? previous : 0);
+                }
+                this.digests.put(key, digest);
+
+                this.evict(digest);
+            }
+
+            return digest;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = this.sizes.entrySet().iterator();
+        while (this.size > this.maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+
+            // the links already materialized in working directories keep their content
+            try {
+                Files.deleteIfExists(this.path(entry.getKey()));
+            } catch (IOException ignored) {
+                // best effort, the content will be replaced if it is fetched again
+            }
+            this.size -= entry.getValue();
+            this.digests.values().removeIf(entry.getKey()::equals);
+            iterator.remove();
+        }
+    }
+
+    private Path path(String digest) {
+        return this.directory.resolve(digest);
+    }
+
+    private synchronized boolean link(Path content, Path target) {
+        // under the lock, as evictions are, so the content is not deleted while it is linked
+        try {
+            Files.createLink(target, content);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            return false;
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+
+    private static void deleteStaleDirectories(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        try (Stream<Path> directories = Files.list(root)) {
+            for (Path directory : directories.toList()) {
+                // the directory of a running worker is named after its pid
+                boolean alive = directory.getFileName().toString().chars().allMatch(Character::isDigit) &&
+                    ProcessHandle.of(Long.parseLong(directory.getFileName().toString())).map(ProcessHandle::isAlive).orElse(false);
+
+                if (!alive || directory.getFileName().toString().equals(String.valueOf(ProcessHandle.current().pid()))) {
+                    delete(directory);
+                }
+            }
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Stages the input files that reference the internal storage into the working directory.
+ * <p>
+ * Each file is streamed from the storage straight to its target file, so its content is never held in memory, and
+ * several files are fetched concurrently.
+ * <p>
+ * Member references of archived output directories ({@code kestra:///...tar#member}) are extracted from their
+ * archive with {@link OutputArchive}. When enabled, the files are fetched through the worker-local
+ * {@link InputCache}. The other input files, inline contents, are left to
+ * {@code PluginUtilsService.createInputFiles}.
+ */
+final class InputStager {
+    private static final String KESTRA_SCHEME = "kestra://";
+
+    private InputStager() {}
+
+    /**
+     * Stages the input files referencing the internal storage, and removes them from the given input files.
+     *
+     * @param runContext the run context
+     * @param workingDirectory the working directory of the script
+     * @param inputFiles the input files, by path relative to the working directory
+     * @param concurrency the maximum number of concurrent downloads
+     * @param cache the worker-local cache to fetch the files through, or {@code null} to always fetch them
+     * @param linkCached whether the cached files can be hard linked into the working directory rather than copied
+     */
+    static void stage(RunContext runContext, Path workingDirectory, Map<String, String> inputFiles, int concurrency, InputCache cache, boolean linkCached) throws Exception {
+        List<Callable<Long>> downloads = new ArrayList<>();
+
+        Iterator<Map.Entry<String, String>> iterator = inputFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, String> inputFile = iterator.next();
+            if (inputFile.getValue() == null || !inputFile.getValue().startsWith(KESTRA_SCHEME)) {
+                continue;
+            }
+
+            Path target = target(workingDirectory, inputFile.getKey());
+            URI uri = new URI(inputFile.getValue());
+            if (OutputArchive.isMemberReference(inputFile.getValue())) {
+                URI archive = new URI(uri.getScheme(), uri.getSchemeSpecificPart(), null);
+                downloads.add(() -> {
+                    OutputArchive.extract(runContext, archive, uri.getFragment(), target);
+                    return Files.size(target);
+                });
+            } else if (cache != null && InputCache.isCacheable(uri)) {
+                downloads.add(() -> cache.materialize(runContext, uri, target, linkCached));
+            } else {
+                downloads.add(() -> download(runContext, uri, target));
+            }
+
+            iterator.remove();
+        }
+
+        if (downloads.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long bytes = ConcurrentTransfers.run("input-download", concurrency, downloads).stream().mapToLong(Long::longValue).sum();
+
+        runContext.metric(Counter.of("inputs.download.bytes", bytes));
+        runContext.metric(Timer.of("inputs.download.duration", Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    private static long download(RunContext runContext, URI uri, Path target) throws Exception {
+        Files.createDirectories(target.getParent());
+
+        try (
+            InputStream inputStream = runContext.storage().getFile(uri);
+            OutputStream outputStream = new FileOutputStream(target.toFile())
+        ) {
+            return inputStream.transferTo(outputStream);
+        }
+    }
+
+    private static Path target(Path workingDirectory, String name) {
+        Path target = workingDirectory.resolve(name).normalize();
+        if (!target.startsWith(workingDirectory.normalize())) {
+            throw new IllegalArgumentException("The input file '" + name + "' must not be outside of the working directory");
+        }
+        return target;
+    }
+}
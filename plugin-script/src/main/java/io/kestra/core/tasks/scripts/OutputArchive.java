@@ -0,0 +1,161 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * Packs an output directory into a single tar archive, and extracts single members from such archives.
+ * <p>
+ * The first entry of an archive is a JSON manifest, named {@value #MANIFEST}, listing the path and size of each
+ * member. The same manifest is uploaded next to the archive, so readers can list the content of an archive without
+ * downloading it; the manifest stores no offsets, so extracting a member still reads the archive up to that member.
+ * <p>
+ * A member is referenced by the internal storage URI of its archive with the member path as fragment, e.g.
+ * {@code kestra:///ns/flow/exec/myDir.tar#sub/file.csv}; such references are accepted as input files values.
+ */
+final class OutputArchive {
+    static final String MANIFEST = ".kestra-manifest.json";
+    static final String ARCHIVE_SUFFIX = ".tar";
+    static final String MANIFEST_SUFFIX = ".manifest.json";
+
+    private static final String KESTRA_SCHEME = "kestra";
+
+    private OutputArchive() {}
+
+    /**
+     * A member of an archive.
+     *
+     * @param path the path of the member, relative to the packed directory and always '/'-separated
+     * @param size the size of the member in bytes
+     */
+    record Member(String path, long size) {}
+
+    /**
+     * Lists the regular files of a directory, as the members of its archive.
+     *
+     * @param directory the directory to pack
+     * @return the members, sorted by path
+     */
+    static List<Member> members(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        List<Member> members = new ArrayList<>(files.size());
+        for (Path file : files) {
+            members.add(new Member(memberPath(directory, file), Files.size(file)));
+        }
+
+        return members;
+    }
+
+    /**
+     * @param members the members of an archive
+     * @return the content of the manifest listing them
+     */
+    static byte[] manifest(List<Member> members) throws IOException {
+        return JacksonMapper.ofJson().writeValueAsBytes(Map.of(
+            "members",
+            members.stream().map(member -> Map.of("path", member.path(), "size", member.size())).toList()
+        ));
+    }
+
+    /**
+     * Writes the tar archive of a directory, preceded by the manifest.
+     *
+     * @param directory the directory to pack
+     * @param members the members of the archive, see {@link #members(Path)}
+     * @param manifest the content of the manifest, see {@link #manifest(List)}
+     * @param outputStream the stream to write the archive to, left open
+     */
+    static void write(Path directory, List<Member> members, byte[] manifest, OutputStream outputStream) throws IOException {
+        TarArchiveOutputStream tar = new TarArchiveOutputStream(CloseShieldOutputStream.wrap(outputStream));
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+        TarArchiveEntry manifestEntry = new TarArchiveEntry(MANIFEST);
+        manifestEntry.setSize(manifest.length);
+        tar.putArchiveEntry(manifestEntry);
+        tar.write(manifest);
+        tar.closeArchiveEntry();
+
+        for (Member member : members) {
+            Path file = directory.resolve(member.path());
+            tar.putArchiveEntry(new TarArchiveEntry(file.toFile(), member.path()));
+            Files.copy(file, tar);
+            tar.closeArchiveEntry();
+        }
+
+        // writes the end of archive records, the underlying stream is shielded
+        tar.close();
+    }
+
+    /**
+     * @param value an input file value
+     * @return whether the value references a member of an archive
+     */
+    static boolean isMemberReference(String value) {
+        if (value == null || !value.startsWith(KESTRA_SCHEME + "://")) {
+            return false;
+        }
+
+        try {
+            URI uri = new URI(value);
+            return uri.getFragment() != null && !uri.getFragment().isEmpty();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Extracts a single member of an archive.
+     *
+     * @param runContext the run context
+     * @param archive the internal storage URI of the archive
+     * @param member the path of the member
+     * @param target the file to write the member to
+     */
+    static void extract(RunContext runContext, URI archive, String member, Path target) throws IOException {
+        try (
+            InputStream inputStream = new BufferedInputStream(runContext.storage().getFile(archive));
+            TarArchiveInputStream tar = new TarArchiveInputStream(inputStream)
+        ) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                if (entry.isFile() && entry.getName().equals(member)) {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(tar, target, StandardCopyOption.REPLACE_EXISTING);
+                    return;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("The archive '" + archive + "' has no member '" + member + "'");
+    }
+
+    private static String memberPath(Path directory, Path file) {
+        List<String> segments = new ArrayList<>();
+        directory.relativize(file).forEach(segment -> segments.add(segment.toString()));
+        return String.join("/", segments);
+    }
+}
@@ -0,0 +1,142 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.tasks.RunnableTaskException;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+
+/**
+ * Side channel used by the script helpers (e.g. {@code kestra.py}) to send outputs and metrics without going
+ * through stdout.
+ * <p>
+ * The channel is a file in a temporary directory outside the working directory, so that {@code outputFiles} globs
+ * never pick it up, and its absolute path is advertised to the script by the {@value #ENV} environment variable.
+ * Helpers buffer their messages and append them in batches as JSON documents, with the same shape as the
+ * {@code ::{...}::} stdout convention. The worker reads the channel once the script has ended, successfully or not,
+ * so stdout is only scanned for logs.
+ */
+final class OutputSideChannel {
+    static final String ENV = "KESTRA_SIDE_CHANNEL";
+    static final String FILE = ".kestra_side_channel";
+
+    private OutputSideChannel() {}
+
+    /**
+     * @return the path of a new channel, in a temporary directory created for it; the file itself is created by the
+     * helpers on their first write
+     */
+    static Path create() throws IOException {
+        return Files.createTempDirectory("kestra-side-channel").resolve(FILE);
+    }
+
+    /**
+     * Deletes the channel and its temporary directory.
+     *
+     * @param channel the channel, or {@code null} if none was created
+     */
+    static void delete(Path channel) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(channel);
+            Files.deleteIfExists(channel.getParent());
+        } catch (IOException ignored) {
+            // best effort, the directory is only worker-local disk usage
+        }
+    }
+
+    /**
+     * Reads the channel, records the metrics it contains on the run context, and returns the outputs.
+     *
+     * @param runContext the run context
+     * @param channel the channel, or {@code null} if none was created
+     * @return the outputs sent through the side channel, empty if the channel was not used
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> read(RunContext runContext, Path channel) throws IOException {
+        Map<String, Object> outputs = new HashMap<>();
+
+        if (channel == null || !Files.isRegularFile(channel)) {
+            return outputs;
+        }
+
+        try (
+            BufferedReader reader = Files.newBufferedReader(channel, StandardCharsets.UTF_8);
+            MappingIterator<Map<String, Object>> messages = JacksonMapper.ofJson().readerFor(Map.class).readValues(reader)
+        ) {
+            while (messages.hasNextValue()) {
+                Map<String, Object> message = messages.nextValue();
+
+                if (message.get("outputs") instanceof Map<?, ?> messageOutputs) {
+                    outputs.putAll((Map<String, Object>) messageOutputs);
+                }
+
+                if (message.get("metrics") instanceof List<?> metrics) {
+                    metrics.forEach(metric -> metric(runContext, (Map<String, Object>) metric));
+                }
+            }
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Reads the channel of a script that failed, so that the metrics it sent are recorded and its outputs are kept on
+     * the failure, as with the stdout convention.
+     *
+     * @param runContext the run context
+     * @param channel the channel, or {@code null} if none was created
+     * @param failure the failure of the script, on which a read error is recorded as suppressed
+     */
+    static void read(RunContext runContext, Path channel, RunnableTaskException failure) {
+        try {
+            Map<String, Object> outputs = read(runContext, channel);
+            if (!outputs.isEmpty() && failure.getOutput() instanceof ScriptOutput output && output.getVars() != null) {
+                output.getVars().putAll(outputs);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static void metric(RunContext runContext, Map<String, Object> metric) {
+        String name = (String) metric.get("name");
+        Number value = (Number) metric.get("value");
+        String[] tags = tags(metric.get("tags"));
+
+        switch (String.valueOf(metric.get("type"))) {
+            case "counter" -> runContext.metric(Counter.of(name, value, tags));
+            // timers are sent in seconds, as for the stdout convention
+            case "timer" -> runContext.metric(Timer.of(name, Duration.ofNanos(Math.round(value.doubleValue() * 1_000_000_000D)), tags));
+            default -> runContext.logger().warn("Ignoring metric '{}' with unknown type '{}'", name, metric.get("type"));
+        }
+    }
+
+    private static String[] tags(Object tags) {
+        if (!(tags instanceof Map<?, ?> map)) {
+            return new String[0];
+        }
+
+        return map.entrySet()
+            .stream()
+            .flatMap(entry -> Stream.of(String.valueOf(entry.getKey()), String.valueOf(entry.getValue())))
+            .toArray(String[]::new);
+    }
+}
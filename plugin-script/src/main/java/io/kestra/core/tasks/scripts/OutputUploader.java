@@ -0,0 +1,158 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Uploads the output files of a script to the internal storage with a bounded number of concurrent uploads.
+ * <p>
+ * Uploads are collected first, then run through {@link ConcurrentTransfers}. The total size and the duration of the
+ * upload phase are recorded as the {@code outputs.upload.bytes} and {@code outputs.upload.duration} metrics.
+ * <p>
+ * Besides files, an upload can be content written on the fly, e.g. an archive of an output directory: it is piped to
+ * the storage while being written, so it never takes room on the disk of the worker.
+ */
+final class OutputUploader {
+    private final RunContext runContext;
+    private final int concurrency;
+    private final List<Upload> uploads = new ArrayList<>();
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Content written on the fly to the storage.
+     */
+    @FunctionalInterface
+    interface Content {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private record Upload(String key, File file, String name, Content content) {}
+
+    /**
+     * @param runContext the run context
+     * @param concurrency the maximum number of concurrent uploads, at least 1
+     */
+    OutputUploader(RunContext runContext, int concurrency) {
+        this.runContext = runContext;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Adds a file to upload.
+     *
+     * @param key the key of the file in the outputs
+     * @param file the file
+     * @param name the file name in the internal storage, or {@code null} to keep the name of the file
+     */
+    void add(String key, File file, String name) {
+        this.uploads.add(new Upload(key, file, name, null));
+    }
+
+    /**
+     * Adds content to upload as it is written.
+     *
+     * @param key the key of the file in the outputs
+     * @param name the file name in the internal storage
+     * @param content the content
+     */
+    void add(String key, String name, Content content) {
+        this.uploads.add(new Upload(key, null, name, content));
+    }
+
+    /**
+     * Uploads all the added files, stopping at the first failure.
+     *
+     * @return the internal storage URI of each uploaded file, by key
+     */
+    Map<String, URI> upload() throws Exception {
+        Map<String, URI> uploaded = new HashMap<>();
+        if (this.uploads.isEmpty()) {
+            return uploaded;
+        }
+
+        long start = System.nanoTime();
+
+        List<Callable<URI>> transfers = new ArrayList<>(this.uploads.size());
+        for (Upload upload : this.uploads) {
+            transfers.add(() -> this.put(upload));
+        }
+        List<URI> uris = ConcurrentTransfers.run("output-upload", this.concurrency, transfers);
+
+        for (int i = 0; i < this.uploads.size(); i++) {
+            uploaded.put(this.uploads.get(i).key(), uris.get(i));
+        }
+
+        this.runContext.metric(Counter.of("outputs.upload.bytes", this.bytes.get()));
+        this.runContext.metric(Timer.of("outputs.upload.duration", Duration.ofNanos(System.nanoTime() - start)));
+
+        return uploaded;
+    }
+
+    private URI put(Upload upload) throws Exception {
+        if (upload.content() != null) {
+            return this.stream(upload);
+        }
+
+        URI uri = upload.name() == null ?
+            this.runContext.storage().putFile(upload.file()) :
+            this.runContext.storage().putFile(upload.file(), upload.name());
+        this.bytes.addAndGet(upload.file().length());
+
+        return uri;
+    }
+
+    private URI stream(Upload upload) throws Exception {
+        PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream pipe = new PipedOutputStream(inputStream);
+
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        Thread.ofVirtual().name("output-upload-writer-" + upload.key()).start(() -> {
+            try (CountingOutputStream outputStream = new CountingOutputStream(pipe)) {
+                upload.content().writeTo(outputStream);
+                outputStream.flush();
+                written.complete(outputStream.getByteCount());
+            } catch (Throwable e) {
+                written.completeExceptionally(e);
+            }
+        });
+
+        URI uri;
+        // closing the pipe stops the writer if the storage fails before reading everything
+        try (inputStream) {
+            uri = this.runContext.storage().putFile(inputStream, upload.name());
+        }
+
+        try {
+            this.bytes.addAndGet(written.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        return uri;
+    }
+}
@@ -0,0 +1,153 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.tasks.runners.TaskRunner;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Terminates a running script and every process it started.
+ * <p>
+ * Killing the task runner only signals the shell it started, so the processes started by the script were left
+ * running. With the process task runner, the script first writes the pid of its shell into a {@link #PID_FILE}, kept
+ * in a temporary directory outside the working directory so that the globs of the script never pick it up; on kill,
+ * the whole process tree of that shell gets a SIGTERM, then a SIGKILL for the processes still alive once the grace
+ * period is over. Containers are left to their task runner, which stops the whole container.
+ * <p>
+ * The time taken to terminate is recorded as the {@code process.termination.duration} metric, and the terminations
+ * that needed a SIGKILL are counted by the {@code process.termination.forced} metric.
+ */
+final class ProcessTreeTerminator {
+    static final String PID_FILE = ".kestra_pid";
+
+    private final RunContext runContext;
+    private final TaskRunner<?> taskRunner;
+    private final Path pidFile;
+    private final Duration gracePeriod;
+
+    /**
+     * @param runContext the run context
+     * @param taskRunner the task runner of the script
+     * @param pidFile the file the script writes the pid of its shell into, or {@code null} when the processes are not
+     * started on the worker
+     * @param gracePeriod the time left to the processes to exit after the SIGTERM
+     */
+    ProcessTreeTerminator(RunContext runContext, TaskRunner<?> taskRunner, Path pidFile, Duration gracePeriod) {
+        this.runContext = runContext;
+        this.taskRunner = taskRunner;
+        this.pidFile = pidFile;
+        this.gracePeriod = gracePeriod;
+    }
+
+    /**
+     * @return the path of a new pid file, in a temporary directory created for it; the file itself is created by the
+     * script
+     */
+    static Path createPidFile() throws IOException {
+        return Files.createTempDirectory("kestra-pid").resolve(PID_FILE);
+    }
+
+    /**
+     * Deletes the pid file and its temporary directory.
+     *
+     * @param pidFile the pid file, or {@code null} if none was created
+     */
+    static void deletePidFile(Path pidFile) {
+        if (pidFile == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(pidFile);
+            Files.deleteIfExists(pidFile.getParent());
+        } catch (IOException ignored) {
+            // best effort, the directory is only worker-local disk usage
+        }
+    }
+
+    /**
+     * @param pidFile the file to write the pid of the shell into
+     * @return the command writing the pid of the shell, to run first
+     */
+    static String pidCommand(Path pidFile) {
+        return "echo $$ > '" + pidFile.toAbsolutePath() + "'";
+    }
+
+    /**
+     * Terminates the script, waiting up to the grace period for its processes to exit.
+     */
+    void terminate() {
+        long start = System.nanoTime();
+
+        Optional<ProcessHandle> shell = this.shell();
+        if (shell.isEmpty()) {
+            this.taskRunner.kill();
+            this.runContext.metric(Timer.of("process.termination.duration", Duration.ofNanos(System.nanoTime() - start)));
+            return;
+        }
+
+        List<ProcessHandle> tree = tree(shell.get());
+        // the shell first, so it doesn't start the next command when a child exits
+        tree.forEach(ProcessHandle::destroy);
+
+        if (!awaitExit(tree, this.gracePeriod)) {
+            List<ProcessHandle> alive = new ArrayList<>(tree);
+            // processes started during the grace period, by processes already reparented when the shell exited
+            tree.forEach(process -> alive.addAll(process.descendants().toList()));
+            alive.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+
+            this.runContext.logger().warn("The script processes didn't exit within {}, they were killed", this.gracePeriod);
+            this.runContext.metric(Counter.of("process.termination.forced", 1));
+        }
+
+        this.taskRunner.kill();
+        this.runContext.metric(Timer.of("process.termination.duration", Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    private Optional<ProcessHandle> shell() {
+        if (this.pidFile == null || !Files.exists(this.pidFile)) {
+            return Optional.empty();
+        }
+
+        try {
+            long pid = Long.parseLong(Files.readString(this.pidFile, StandardCharsets.UTF_8).trim());
+            return ProcessHandle.of(pid).filter(ProcessHandle::isAlive);
+        } catch (IOException | NumberFormatException e) {
+            this.runContext.logger().debug("Unable to read the pid of the script", e);
+            return Optional.empty();
+        }
+    }
+
+    private static List<ProcessHandle> tree(ProcessHandle root) {
+        List<ProcessHandle> tree = new ArrayList<>();
+        tree.add(root);
+        tree.addAll(root.descendants().toList());
+        return tree;
+    }
+
+    private static boolean awaitExit(List<ProcessHandle> processes, Duration timeout) {
+        try {
+            CompletableFuture.allOf(processes.stream().map(ProcessHandle::onExit).toArray(CompletableFuture[]::new))
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
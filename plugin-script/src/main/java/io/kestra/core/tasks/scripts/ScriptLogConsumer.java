@@ -0,0 +1,207 @@
+package io.kestra.core.tasks.scripts;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextLogger;
+import io.kestra.plugin.scripts.exec.scripts.runners.DefaultLogConsumer;
+
+/**
+ * Log consumer of the legacy script tasks, keeping the cost of the script logs flat whatever their volume.
+ * <ul>
+ *     <li>Only the lines starting with {@code ::} can be {@code ::{...}::} messages, so only these lines are handed to
+ *     the parser of the default consumer; the others are counted and logged directly, with the same levels.</li>
+ *     <li>Consecutive lines of the same stream are logged as a single multi-line message, by batches of at most
+ *     {@code batchSize} lines, flushed at least every {@value #FLUSH_INTERVAL_MS} ms.</li>
+ *     <li>Lines longer than {@code maxLineLength} are truncated.</li>
+ *     <li>Past {@code maxLinesPerSecond} lines in the current second, lines are only counted; the number of dropped
+ *     lines is logged when the next second starts.</li>
+ * </ul>
+ * Line counts always include every line, whether it was logged or not.
+ */
+final class ScriptLogConsumer extends DefaultLogConsumer implements AutoCloseable {
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final String TRUNCATED = "... [truncated]";
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "script-log-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger logger;
+    private final int batchSize;
+    private final Integer maxLineLength;
+    private final Integer maxLinesPerSecond;
+    private final ScheduledFuture<?> flusher;
+
+    private final List<String> batch = new ArrayList<>();
+    private boolean batchIsStdErr;
+    private Instant batchInstant;
+    private long currentSecond;
+    private int linesInCurrentSecond;
+    private long dropped;
+    private long parsedLines;
+
+    /**
+     * @param runContext the run context
+     * @param batchSize the maximum number of lines logged as a single message, at least 1
+     * @param maxLineLength the maximum length of a logged line, or {@code null} for no limit
+     * @param maxLinesPerSecond the maximum number of lines logged per second, or {@code null} for no limit
+     */
+    ScriptLogConsumer(RunContext runContext, int batchSize, Integer maxLineLength, Integer maxLinesPerSecond) {
+        super(runContext);
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The log batch size must be at least 1, got " + batchSize);
+        }
+
+        this.logger = runContext.logger();
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+        this.maxLinesPerSecond = maxLinesPerSecond;
+        this.flusher = batchSize > 1 ?
+            FLUSHER.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS) :
+            null;
+    }
+
+    @Override
+    public void accept(String line, Boolean isStdErr) {
+        this.accept(line, isStdErr, null);
+    }
+
+    @Override
+    public synchronized void accept(String line, Boolean isStdErr, Instant instant) {
+        if (isMessageCandidate(line)) {
+            // keep the order of the logs
+            this.flush();
+            this.parsedLines++;
+            super.accept(line, isStdErr, instant);
+            return;
+        }
+
+        if (Boolean.TRUE.equals(isStdErr)) {
+            this.stdErrCount.incrementAndGet();
+        } else {
+            this.stdOutCount.incrementAndGet();
+        }
+
+        if (!this.sample()) {
+            return;
+        }
+
+        if (!this.batch.isEmpty() && this.batchIsStdErr != Boolean.TRUE.equals(isStdErr)) {
+            this.flush();
+        }
+        if (this.batch.isEmpty()) {
+            this.batchIsStdErr = Boolean.TRUE.equals(isStdErr);
+            this.batchInstant = instant;
+        }
+        this.batch.add(this.truncate(line));
+
+        if (this.batch.size() >= this.batchSize) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Logs the pending lines.
+     */
+    synchronized void flush() {
+        if (this.batch.isEmpty()) {
+            return;
+        }
+
+        // logged directly, with the levels of the default consumer: the lines can't be messages, so they are not parsed
+        String message = String.join("\n", this.batch);
+        LoggingEventBuilder event = this.batchIsStdErr ? this.logger.atWarn() : this.logger.atInfo();
+        if (this.batchInstant != null) {
+            event = event.addKeyValue(RunContextLogger.ORIGINAL_TIMESTAMP_KEY, this.batchInstant);
+        }
+        event.log(message);
+
+        this.batch.clear();
+    }
+
+    /**
+     * @return the number of lines handed to the parser of the default consumer
+     */
+    synchronized long getParsedLines() {
+        return this.parsedLines;
+    }
+
+    // synchronized, so the counts are read under the same lock as the one they are updated under
+
+    @Override
+    public synchronized int getStdOutCount() {
+        return super.getStdOutCount();
+    }
+
+    @Override
+    public synchronized int getStdErrCount() {
+        return super.getStdErrCount();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.flusher != null) {
+            this.flusher.cancel(false);
+        }
+
+        this.flush();
+        this.logDropped();
+    }
+
+    static boolean isMessageCandidate(String line) {
+        int i = 0;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return line.startsWith("::", i);
+    }
+
+    private boolean sample() {
+        if (this.maxLinesPerSecond == null) {
+            return true;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        if (second != this.currentSecond) {
+            this.currentSecond = second;
+            this.linesInCurrentSecond = 0;
+            this.flush();
+            this.logDropped();
+        }
+
+        if (this.linesInCurrentSecond >= this.maxLinesPerSecond) {
+            this.dropped++;
+            return false;
+        }
+
+        this.linesInCurrentSecond++;
+        return true;
+    }
+
+    private void logDropped() {
+        if (this.dropped > 0) {
+            this.logger.warn("{} log lines were dropped, over the limit of {} lines per second", this.dropped, this.maxLinesPerSecond);
+            this.dropped = 0;
+        }
+    }
+
+    private String truncate(String line) {
+        if (this.maxLineLength == null || line.length() <= this.maxLineLength) {
+            return line;
+        }
+        return line.substring(0, this.maxLineLength) + TRUNCATED;
+    }
+}
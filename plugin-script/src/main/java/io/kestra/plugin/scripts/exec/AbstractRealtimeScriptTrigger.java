@@ -0,0 +1,293 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.runners.TaskRunner;
+import io.kestra.core.models.triggers.AbstractTrigger;
+import io.kestra.core.models.triggers.RealtimeTriggerInterface;
+import io.kestra.core.models.triggers.TriggerContext;
+import io.kestra.core.models.triggers.TriggerOutput;
+import io.kestra.core.models.triggers.TriggerService;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+import io.kestra.plugin.scripts.exec.scripts.runners.CommandsWrapper;
+import io.kestra.plugin.scripts.exec.scripts.runners.DefaultLogConsumer;
+import io.kestra.plugin.scripts.runner.docker.Docker;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Base class for the realtime script triggers.
+ * <p>
+ * Instead of running a short script on every poll, the trigger starts one long-running script and keeps it
+ * running. Each {@code ::{"outputs":{...}}::} line printed by the script is an event: when it matches the
+ * {@code condition}, an execution is emitted right away. If the script exits, it is started again after
+ * {@code restartDelay}, until the trigger is stopped.
+ * <p>
+ * Subclasses only provide the container image and how the script file is run.
+ */
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public abstract class AbstractRealtimeScriptTrigger extends AbstractTrigger
+    implements RealtimeTriggerInterface, TriggerOutput<AbstractRealtimeScriptTrigger.Output> {
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    @Schema(
+        title = "Long-running script",
+        description = """
+            Script started once and kept running; it is expected to loop, watching for events.
+            Every `::{"outputs":{...}}::` line it prints is an event that can fire an execution, other lines are logged.
+            """
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    protected Property<String> script;
+
+    @Schema(
+        title = "Condition to match",
+        description = """
+            Matched against the vars of each event, with the same forms as the polling triggers' `exitCondition` (except `exit N`; `changed` is rejected): `$.path.to.key`, `key=value`, or a regex (or substring fallback).
+            When empty, every event emits an execution.
+            """
+    )
+    @PluginProperty(group = "main")
+    protected Property<String> condition;
+
+    @Schema(
+        title = "Task runner used to run the script",
+        description = "Defaults to Docker; the Process runner avoids the container altogether."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    @Valid
+    protected TaskRunner<?> taskRunner = Docker.instance();
+
+    @Schema(
+        title = "Delay before restarting the script",
+        description = "Used when the script exits or fails while the trigger is still running."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> restartDelay = Property.ofValue(Duration.ofSeconds(5));
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean isActive = new AtomicBoolean(true);
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    private final CountDownLatch waitForTermination = new CountDownLatch(1);
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<TaskRunner<?>> runningTaskRunner = new AtomicReference<>();
+
+    public abstract Property<String> getContainerImage();
+
+    /**
+     * @return the extension of the script file, e.g. {@code .py}
+     */
+    protected abstract String scriptExtension();
+
+    /**
+     * @param scriptPath the absolute path of the script file, as seen by the task runner
+     * @return the command that runs the script, e.g. {@code python <path>}
+     */
+    protected abstract String runCommand(String scriptPath);
+
+    @Override
+    public Publisher<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
+        RunContext runContext = conditionContext.getRunContext();
+
+        return Flux
+            .<Output>create(
+                sink -> {
+                    try {
+                        this.watch(runContext, sink);
+                    } finally {
+                        sink.complete();
+                        this.waitForTermination.countDown();
+                    }
+                },
+                FluxSink.OverflowStrategy.BUFFER
+            )
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(output -> TriggerService.generateRealtimeExecution(this, conditionContext, context, output));
+    }
+
+    private void watch(RunContext runContext, FluxSink<Output> sink) {
+        Duration rRestartDelay;
+        TriggerCondition rCondition;
+        try {
+            rRestartDelay = runContext.render(this.restartDelay).as(Duration.class).orElse(Duration.ofSeconds(5));
+            rCondition = TriggerCondition.compile(runContext.render(this.condition).as(String.class).orElse(null));
+            if (rCondition.isChangeDetection()) {
+                // events are not compared with each other, a changed condition would never match
+                throw new IllegalArgumentException("The 'changed' condition is not supported by realtime triggers");
+            }
+        } catch (Exception e) {
+            sink.error(e);
+            return;
+        }
+
+        while (this.isActive.get()) {
+            try {
+                ScriptOutput output = this.runScript(runContext, event -> {
+                    if (rCondition.source().isEmpty() || rCondition.matches(null, event)) {
+                        sink.next(new Output(Instant.now(), event));
+                    }
+                });
+
+                if (this.isActive.get()) {
+                    runContext.logger().warn("Watcher script exited with code {}, restarting it in {}", output.getExitCode(), rRestartDelay);
+                }
+            } catch (Exception e) {
+                if (!this.isActive.get()) {
+                    break;
+                }
+                runContext.logger().warn("Watcher script failed, restarting it in {}", rRestartDelay, e);
+            }
+
+            if (this.isActive.get()) {
+                try {
+                    Thread.sleep(rRestartDelay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private ScriptOutput runScript(RunContext runContext, Consumer<Map<String, Object>> onEvent) throws Exception {
+        RunContext scriptRunContext = TriggerRunContext.forEmbeddedTask(runContext, this.getId(), this.getType());
+
+        CommandsWrapper commands = new CommandsWrapper(scriptRunContext)
+            .withTaskRunner(this.taskRunner)
+            .withContainerImage(scriptRunContext.render(this.getContainerImage()).as(String.class).orElse(null));
+
+        Path relativeScriptPath = scriptRunContext.workingDir().path().relativize(scriptRunContext.workingDir().createTempFile(this.scriptExtension()));
+        Map<String, String> inputFiles = new HashMap<>();
+        inputFiles.put(relativeScriptPath.toString(), commands.render(scriptRunContext, this.script));
+        commands = commands.withInputFiles(inputFiles);
+
+        String scriptPath = commands.getTaskRunner().toAbsolutePath(scriptRunContext, commands, relativeScriptPath.toString(), null);
+
+        this.runningTaskRunner.set(commands.getTaskRunner());
+        try {
+            return commands
+                .withCommands(Property.ofValue(List.of(this.runCommand(scriptPath))))
+                .withLogConsumer(new EventLogConsumer(scriptRunContext, onEvent))
+                .run();
+        } finally {
+            this.runningTaskRunner.set(null);
+        }
+    }
+
+    @Override
+    public void kill() {
+        this.stop(true);
+    }
+
+    @Override
+    public void stop() {
+        this.stop(false);
+    }
+
+    private void stop(boolean wait) {
+        if (!this.isActive.compareAndSet(true, false)) {
+            return;
+        }
+
+        TaskRunner<?> running = this.runningTaskRunner.get();
+        if (running != null) {
+            running.kill();
+        }
+
+        if (wait) {
+            try {
+                this.waitForTermination.await(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Logs the script output like the default consumer, and hands over the outputs of each
+     * {@code ::{"outputs":...}::} line as soon as it is read instead of accumulating them until the end.
+     */
+    private static class EventLogConsumer extends DefaultLogConsumer {
+        private final Consumer<Map<String, Object>> onEvent;
+
+        EventLogConsumer(RunContext runContext, Consumer<Map<String, Object>> onEvent) {
+            super(runContext);
+            this.onEvent = onEvent;
+        }
+
+        @Override
+        public void accept(String line, Boolean isStdErr) {
+            super.accept(line, isStdErr);
+            this.drain();
+        }
+
+        @Override
+        public void accept(String line, Boolean isStdErr, Instant instant) {
+            super.accept(line, isStdErr, instant);
+            this.drain();
+        }
+
+        private synchronized void drain() {
+            Map<String, Object> outputs = this.getOutputs();
+            if (outputs.isEmpty()) {
+                return;
+            }
+
+            Map<String, Object> event = new HashMap<>(outputs);
+            outputs.clear();
+            this.onEvent.accept(event);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "Timestamp of the event that fired the trigger")
+        private Instant timestamp;
+
+        @Schema(
+            title = "Event vars",
+            description = "Outputs printed by the script for this event, with the ::{\"outputs\":{...}}:: convention."
+        )
+        private Map<String, Object> vars;
+    }
+}
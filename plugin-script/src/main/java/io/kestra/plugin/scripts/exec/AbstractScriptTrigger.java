@@ -0,0 +1,635 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.conditions.ConditionContext;
+import io.kestra.core.models.executions.Execution;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.RunnableTaskException;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.models.tasks.runners.TaskException;
+import io.kestra.core.models.triggers.AbstractTrigger;
+import io.kestra.core.models.triggers.PollingTriggerInterface;
+import io.kestra.core.models.triggers.TriggerContext;
+import io.kestra.core.models.triggers.TriggerOutput;
+import io.kestra.core.models.triggers.TriggerService;
+import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.scripts.exec.scripts.models.ScriptOutput;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Base class for the polling script triggers of every language.
+ * <p>
+ * Each evaluation runs the embedded task built by {@link #embeddedTask(RunContext)}, then matches its exit code
+ * and vars against the {@code exitCondition} (see {@link TriggerCondition}). In edge mode, an execution is only
+ * emitted on a transition from not matching to matching; the last match state is persisted, see
+ * {@link TriggerEdgeState}.
+ * <p>
+ * The {@code changed} condition (see {@link TriggerCondition}) emits when the digest of the vars, or of the
+ * {@code changeFile} output file, differs from the one of the previous evaluation (see {@link TriggerDigest}).
+ * <p>
+ * When {@code evaluationTimeout} is set, an evaluation that runs longer is killed, so a hung script does not hold the
+ * evaluation slot forever. Such evaluations run on a pool bounded to {@code MAX_EVALUATION_THREADS} threads, and the
+ * time spent waiting for one of them counts in the timeout.
+ * <p>
+ * Every evaluation records the following metrics on the trigger run context:
+ * <ul>
+ *     <li>{@code trigger.evaluation.duration}: time spent running the task and matching the condition;</li>
+ *     <li>{@code trigger.evaluations}: one per evaluation, tagged {@code matched=true|false}, for the match rate;</li>
+ *     <li>{@code trigger.exit.code}: one per evaluation with a known exit code, tagged with that {@code exitCode};</li>
+ *     <li>{@code trigger.evaluation.errors}: evaluations that failed before the condition could be matched;</li>
+ *     <li>{@code trigger.evaluation.timeouts}: evaluations killed after {@code evaluationTimeout}.</li>
+ * </ul>
+ * When {@code maxInterval} is set, the delay before the next evaluation grows by {@code backoffMultiplier} after each
+ * evaluation that does not match, from {@code interval} up to {@code maxInterval}, and goes back to {@code interval} as
+ * soon as the condition matches. The script can also set the delay itself with a {@code nextPollAfter} var.
+ * <p>
+ * Subclasses declare the documented {@code exitCondition}, {@code interval} and {@code edge} properties and the
+ * task they run.
+ */
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+public abstract class AbstractScriptTrigger extends AbstractTrigger
+    implements PollingTriggerInterface, TriggerOutput<AbstractScriptTrigger.Output> {
+
+    public static final String NEXT_POLL_AFTER_VAR = "nextPollAfter";
+
+    // how long a killed evaluation is given to terminate before its thread is abandoned
+    private static final Duration KILL_TIMEOUT = Duration.ofSeconds(30);
+
+    // the persisted state expires after it, or after four times the longest interval between polls
+    private static final Duration MIN_STATE_TTL = Duration.ofDays(7);
+
+    // evaluations with a timeout run on a bounded pool, so the threads of evaluations that could not be killed can't
+    // pile up; the other evaluations wait for a free thread
+    private static final int MAX_EVALUATION_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicInteger EVALUATION_THREADS = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EVALUATIONS = new ThreadPoolExecutor(
+        MAX_EVALUATION_THREADS,
+        MAX_EVALUATION_THREADS,
+        60L,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+            Thread thread = new Thread(runnable, "script-trigger-evaluation-" + EVALUATION_THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    static {
+        EVALUATIONS.allowCoreThreadTimeOut(true);
+    }
+
+    @Schema(
+        title = "Timeout of an evaluation",
+        description = """
+            Maximum duration of a single poll. Past it, the script process or container is killed and the poll counts as not matching.
+            When not set, a poll runs until the script ends.
+            """
+    )
+    @PluginProperty(group = "execution")
+    private Property<Duration> evaluationTimeout;
+
+    @Schema(
+        title = "Maximum interval between polls",
+        description = """
+            Enables adaptive polling: every poll that does not match multiplies the delay before the next one by `backoffMultiplier`, up to this value.
+            The delay goes back to `interval` as soon as the condition matches. When not set, the trigger polls every `interval`.
+            In both modes, the script can choose the delay before the next poll by emitting a `nextPollAfter` var, as a number of seconds or an ISO-8601 duration (e.g. `::{"outputs":{"nextPollAfter":"PT10M"}}::`); it is kept between `interval` and `maxInterval`.
+            """
+    )
+    @PluginProperty(group = "execution")
+    private Duration maxInterval;
+
+    @Schema(
+        title = "Backoff multiplier of adaptive polling",
+        description = "Factor applied to the delay after each poll that does not match, when `maxInterval` is set."
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    private Property<Double> backoffMultiplier = Property.ofValue(2.0);
+
+    @Schema(
+        title = "Persist the edge state",
+        description = """
+            Whether the last match state (edge mode) and the last digest (`changed` condition) are stored in the KV store of the flow namespace.
+            They then survive scheduler restarts and are shared by all the scheduler nodes, so a condition that keeps matching does not fire again.
+            They are stored under keys starting with `kestra_script-trigger_`, reserved for this use, and expire after 7 days or four times the longest polling interval
+            if the trigger stops polling. Editing the condition starts from a fresh state. Disabled by default: they then only live in memory.
+            """
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> persistState = Property.ofValue(false);
+
+    @Schema(
+        title = "Emit when the vars change",
+        description = "In edge mode, also emit when the condition keeps matching but the vars differ from the last match."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> emitOnVarsChange = Property.ofValue(false);
+
+    @Schema(
+        title = "Output file watched by the `changed` condition",
+        description = """
+            With the `changed` condition, the trigger compares the digest of this file, written by the script in its working directory, instead of the digest of the vars.
+            The file is collected as an output file of the poll, then deleted from the internal storage once its digest is computed.
+            """
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> changeFile;
+
+    // fallback when the state is not persisted, or cannot be read
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<TriggerEdgeState> lastState = new AtomicReference<>(TriggerEdgeState.INITIAL);
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<String> lastDigest = new AtomicReference<>();
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<TriggerCondition> compiledCondition = new AtomicReference<>();
+
+    // in-memory as well: adaptive polling restarts from interval after a restart
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<Duration> currentInterval = new AtomicReference<>();
+
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<RunnableTask<ScriptOutput>> runningTask = new AtomicReference<>();
+
+    // see alignEvaluations
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicBoolean alignedEvaluations = new AtomicBoolean();
+
+    public abstract Property<String> getExitCondition();
+
+    public abstract Property<Boolean> getEdge();
+
+    /**
+     * Builds the task run on each evaluation.
+     *
+     * @param runContext the trigger run context
+     * @return the task; when it is a {@link Task}, it runs with a run context prepared by {@link TriggerRunContext}
+     */
+    protected abstract RunnableTask<ScriptOutput> embeddedTask(RunContext runContext) throws Exception;
+
+    /**
+     * @return the output files the embedded task must collect for the {@code changed} condition, {@code null} if none
+     */
+    protected Property<List<String>> changeFileOutputs(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(this.changeFile).as(String.class)
+            .map(file -> Property.ofValue(List.of(file)))
+            .orElse(null);
+    }
+
+    /**
+     * Runs the embedded task once. Overridable for triggers that need to prepare or reuse state around the run.
+     */
+    protected ScriptOutput executeTask(RunContext runContext) throws Exception {
+        RunnableTask<ScriptOutput> task = this.embeddedTask(runContext);
+        RunContext taskRunContext = task instanceof Task embedded ? TriggerRunContext.forEmbeddedTask(runContext, embedded) : runContext;
+
+        this.runningTask.set(task);
+        try {
+            return task.run(taskRunContext);
+        } finally {
+            this.runningTask.set(null);
+        }
+    }
+
+    /**
+     * Kills the task of the evaluation that timed out. Triggers overriding {@link #executeTask(RunContext)} without
+     * going through {@link #embeddedTask(RunContext)} must override this as well.
+     */
+    protected void killTask() {
+        RunnableTask<ScriptOutput> task = this.runningTask.get();
+        if (task != null) {
+            task.kill();
+        }
+    }
+
+    @Override
+    public Optional<Execution> evaluate(ConditionContext conditionContext, TriggerContext context) throws Exception {
+        RunContext runContext = conditionContext.getRunContext();
+        boolean rEdge = runContext.render(this.getEdge()).as(Boolean.class).orElse(true);
+
+        long start = System.nanoTime();
+        Evaluation evaluation;
+        try {
+            evaluation = this.runOnce(runContext);
+        } catch (TimeoutException e) {
+            runContext.metric(Counter.of("trigger.evaluation.timeouts", 1));
+            runContext.logger().warn("Trigger evaluation timed out, returning empty result to avoid blocking the scheduler: {}", e.getMessage());
+            return Optional.empty();
+        } catch (Exception e) {
+            runContext.metric(Counter.of("trigger.evaluation.errors", 1));
+            runContext.logger().warn("Trigger evaluation failed, returning empty result to avoid blocking the scheduler", e);
+            return Optional.empty();
+        }
+
+        Output out = evaluation.output();
+        boolean changeDetection = TriggerCondition.cached(this.compiledCondition, out.getCondition()).isChangeDetection();
+        // the persisted state of another condition, or of another change file, is ignored
+        String conditionHash = TriggerDigest.of(Arrays.asList(
+            out.getCondition(),
+            changeDetection ? runContext.render(this.changeFile).as(String.class).orElse(null) : null
+        ));
+        boolean matched = changeDetection
+            ? this.changed(runContext, context, conditionHash, evaluation.digest())
+            : this.matchesCondition(out);
+
+        runContext.metric(Timer.of("trigger.evaluation.duration", Duration.ofNanos(System.nanoTime() - start)));
+        runContext.metric(Counter.of("trigger.evaluations", 1, "matched", String.valueOf(matched)));
+        if (out.getExitCode() != null) {
+            runContext.metric(Counter.of("trigger.exit.code", 1, "exitCode", String.valueOf(out.getExitCode())));
+        }
+
+        this.currentInterval.set(this.nextInterval(runContext, out, matched));
+
+        // a change is an event by itself: edge mode does not apply to the changed condition
+        boolean emit = rEdge && !changeDetection
+            ? this.edge(runContext, context, conditionHash, TriggerEdgeState.of(matched, out.getVars()))
+            : matched;
+
+        if (!emit) {
+            return Optional.empty();
+        }
+
+        return Optional.of(TriggerService.generateExecution(this, conditionContext, context, out));
+    }
+
+    /**
+     * Compares the digest of this evaluation with the previous one, and records it. The first evaluation, or one
+     * without digest (e.g. a failed run), is never a change.
+     */
+    private boolean changed(RunContext runContext, TriggerContext context, String conditionHash, String digest) throws Exception {
+        if (digest == null) {
+            return false;
+        }
+
+        boolean rPersistState = runContext.render(this.persistState).as(Boolean.class).orElse(false);
+
+        String previous = this.lastDigest.getAndSet(digest);
+        boolean refresh = false;
+        if (rPersistState) {
+            try {
+                Optional<TriggerStateStore.Stored> stored = TriggerStateStore.load(runContext, context, TriggerDigest.KIND, conditionHash);
+                if (stored.isPresent()) {
+                    previous = TriggerDigest.of(stored.get()).orElse(previous);
+                    refresh = stored.get().needsRefresh(this.stateTtl());
+                }
+            } catch (Exception e) {
+                runContext.logger().warn("Unable to read the persisted trigger digest, using the in-memory one", e);
+            }
+        }
+
+        if (rPersistState && (refresh || !digest.equals(previous))) {
+            try {
+                TriggerStateStore.save(runContext, context, TriggerDigest.KIND, conditionHash, this.stateTtl(), TriggerDigest.values(digest));
+            } catch (Exception e) {
+                runContext.logger().warn("Unable to persist the trigger digest", e);
+            }
+        }
+
+        return previous != null && !previous.equals(digest);
+    }
+
+    /**
+     * Compares the state of this evaluation with the previous one, and records it.
+     *
+     * @return whether an execution must be emitted
+     */
+    private boolean edge(RunContext runContext, TriggerContext context, String conditionHash, TriggerEdgeState current) throws Exception {
+        boolean rPersistState = runContext.render(this.persistState).as(Boolean.class).orElse(false);
+        boolean rEmitOnVarsChange = runContext.render(this.emitOnVarsChange).as(Boolean.class).orElse(false);
+
+        TriggerEdgeState previous = this.lastState.getAndSet(current);
+        boolean refresh = false;
+        if (rPersistState) {
+            try {
+                Optional<TriggerStateStore.Stored> stored = TriggerStateStore.load(runContext, context, TriggerEdgeState.KIND, conditionHash);
+                if (stored.isPresent()) {
+                    previous = TriggerEdgeState.of(stored.get());
+                    refresh = stored.get().needsRefresh(this.stateTtl());
+                }
+            } catch (Exception e) {
+                runContext.logger().warn("Unable to read the persisted trigger state, using the in-memory one", e);
+            }
+        }
+
+        if (rPersistState && (refresh || !current.equals(previous))) {
+            try {
+                TriggerStateStore.save(runContext, context, TriggerEdgeState.KIND, conditionHash, this.stateTtl(), current.values());
+            } catch (Exception e) {
+                runContext.logger().warn("Unable to persist the trigger state", e);
+            }
+        }
+
+        return current.matched() && (!previous.matched() || (rEmitOnVarsChange && !Objects.equals(previous.varsHash(), current.varsHash())));
+    }
+
+    /**
+     * @return how long the persisted state is kept: long enough for the slowest polling to refresh it in time
+     */
+    private Duration stateTtl() {
+        Duration longest = this.maxInterval != null && this.maxInterval.compareTo(this.getInterval()) > 0 ? this.maxInterval : this.getInterval();
+        Duration ttl = longest.multipliedBy(4);
+
+        return ttl.compareTo(MIN_STATE_TTL) > 0 ? ttl : MIN_STATE_TTL;
+    }
+
+    @Override
+    public ZonedDateTime nextEvaluationDate(ConditionContext conditionContext, Optional<? extends TriggerContext> last) throws Exception {
+        return this.nextEvaluationDate();
+    }
+
+    @Override
+    public ZonedDateTime nextEvaluationDate() {
+        Duration delay = Optional.ofNullable(this.currentInterval.get()).orElse(this.getInterval());
+        ZonedDateTime now = ZonedDateTime.now();
+
+        if (this.alignedEvaluations.get() && delay.toMillis() > 0) {
+            // the next multiple of the delay, so that the triggers polling with the same delay are evaluated together
+            long step = delay.toMillis();
+            long next = now.toInstant().toEpochMilli() + step;
+            return Instant.ofEpochMilli(next - next % step).atZone(now.getZone());
+        }
+
+        return now.plus(delay).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Aligns the next evaluations on a grid of their delay, e.g. on every full minute for a one minute delay, instead
+     * of scheduling them relative to the previous one. Meant for the triggers whose evaluations of the same tick are
+     * grouped, which would otherwise rarely be evaluated together.
+     *
+     * @param aligned whether the next evaluations are aligned
+     */
+    protected void alignEvaluations(boolean aligned) {
+        this.alignedEvaluations.set(aligned);
+    }
+
+    /**
+     * Computes the delay before the next evaluation: the {@code nextPollAfter} hint of the script when there is one,
+     * otherwise the backed-off delay in adaptive mode, otherwise {@code interval}. The result is never shorter than
+     * {@code interval} nor longer than {@code maxInterval}.
+     */
+    private Duration nextInterval(RunContext runContext, Output out, boolean matched) {
+        Duration min = this.getInterval();
+        Duration max = this.maxInterval != null && this.maxInterval.compareTo(min) > 0 ? this.maxInterval : null;
+
+        Duration next = nextPollAfter(runContext, out.getVars());
+        if (next == null) {
+            if (max == null || matched) {
+                return min;
+            }
+
+            double rBackoffMultiplier;
+            try {
+                rBackoffMultiplier = runContext.render(this.backoffMultiplier).as(Double.class).orElse(2.0);
+            } catch (Exception e) {
+                runContext.logger().warn("Unable to render backoffMultiplier, using 2.0", e);
+                rBackoffMultiplier = 2.0;
+            }
+
+            Duration current = Optional.ofNullable(this.currentInterval.get()).orElse(min);
+            next = Duration.ofMillis((long) (current.toMillis() * Math.max(rBackoffMultiplier, 1.0)));
+        }
+
+        if (next.compareTo(min) < 0) {
+            return min;
+        }
+        return max != null && next.compareTo(max) > 0 ? max : next;
+    }
+
+    private static Duration nextPollAfter(RunContext runContext, Map<String, Object> vars) {
+        Object hint = vars == null ? null : vars.get(NEXT_POLL_AFTER_VAR);
+        if (hint == null) {
+            return null;
+        }
+
+        try {
+            if (hint instanceof Number seconds) {
+                return Duration.ofMillis((long) (seconds.doubleValue() * 1000));
+            }
+
+            String value = hint.toString().trim();
+            return value.matches("\\d+(\\.\\d+)?")
+                ? Duration.ofMillis((long) (Double.parseDouble(value) * 1000))
+                : Duration.parse(value);
+        } catch (DateTimeParseException | ArithmeticException e) {
+            runContext.logger().warn("Ignoring invalid {} '{}': expected a number of seconds or an ISO-8601 duration", NEXT_POLL_AFTER_VAR, hint);
+            return null;
+        }
+    }
+
+    private Evaluation runOnce(RunContext runContext) throws Exception {
+        String rExitCondition = runContext.render(this.getExitCondition()).as(String.class).orElse("");
+        TriggerCondition condition = TriggerCondition.cached(this.compiledCondition, rExitCondition);
+
+        try {
+            ScriptOutput taskOutput = this.executeTaskWithTimeout(runContext);
+
+            // vars are the only reliable structured "result" we can read on success
+            Output output = new Output(Instant.now(), rExitCondition, safeExitCode(taskOutput), safeVars(taskOutput));
+
+            return new Evaluation(output, condition.isChangeDetection() ? this.digest(runContext, condition, taskOutput, output.getVars()) : null);
+        } catch (RunnableTaskException e) {
+            return new Evaluation(new Output(Instant.now(), rExitCondition, extractExitCode(e), null), null);
+        }
+    }
+
+    private String digest(RunContext runContext, TriggerCondition condition, ScriptOutput taskOutput, Map<String, Object> vars) throws Exception {
+        String rChangeFile = runContext.render(this.changeFile).as(String.class).orElse(null);
+        if (rChangeFile == null) {
+            return TriggerDigest.of(condition.changeSubject(vars));
+        }
+
+        URI file = Optional.ofNullable(taskOutput.getOutputFiles()).map(files -> files.get(rChangeFile)).orElse(null);
+        if (file == null) {
+            runContext.logger().warn("The change file '{}' was not produced by the script", rChangeFile);
+            return null;
+        }
+
+        try (InputStream inputStream = runContext.storage().getFile(file)) {
+            return TriggerDigest.of(inputStream);
+        } finally {
+            // only its digest is kept, so the file of each poll does not pile up in the storage
+            try {
+                runContext.storage().deleteFile(file);
+            } catch (Exception e) {
+                runContext.logger().debug("Unable to delete the change file '{}'", file, e);
+            }
+        }
+    }
+
+    private ScriptOutput executeTaskWithTimeout(RunContext runContext) throws Exception {
+        Duration rEvaluationTimeout = runContext.render(this.evaluationTimeout).as(Duration.class).orElse(null);
+        if (rEvaluationTimeout == null) {
+            return this.executeTask(runContext);
+        }
+
+        // claimed either by the evaluation thread when it starts, or by the timeout while the evaluation is still queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<ScriptOutput> future = EVALUATIONS.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            return this.executeTask(runContext);
+        });
+        try {
+            return future.get(rEvaluationTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                throw new TimeoutException("the evaluation waited " + rEvaluationTimeout + " for one of the " + MAX_EVALUATION_THREADS + " evaluation threads");
+            }
+
+            this.killTask();
+
+            try {
+                future.get(KILL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException stillRunning) {
+                future.cancel(true);
+                runContext.logger().error("Trigger evaluation still running {} after being killed, abandoning it", KILL_TIMEOUT);
+            } catch (Exception ignored) {
+                // killed as expected
+            }
+
+            throw new TimeoutException("the evaluation exceeded " + rEvaluationTimeout + " and was killed");
+        } catch (InterruptedException e) {
+            this.killTask();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * @param out the result of an evaluation
+     * @return whether it matches the rendered condition
+     */
+    public boolean matchesCondition(Output out) {
+        return TriggerCondition.cached(this.compiledCondition, out.getCondition()).matches(out.getExitCode(), out.getVars());
+    }
+
+    private static Integer safeExitCode(ScriptOutput taskOutput) {
+        try {
+            return taskOutput.getExitCode();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> safeVars(ScriptOutput taskOutput) {
+        try {
+            return taskOutput.getVars();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static Integer extractExitCode(RunnableTaskException e) {
+        Throwable cur = e.getCause();
+        while (cur != null) {
+            if (cur instanceof TaskException te) {
+                return te.getExitCode();
+            }
+            cur = cur.getCause();
+        }
+
+        return null;
+    }
+
+    /**
+     * @param output the trigger output
+     * @param digest the digest watched by the {@code changed} condition, {@code null} for other conditions
+     */
+    private record Evaluation(Output output, String digest) {}
+
+    @Data
+    @AllArgsConstructor
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(title = "Timestamp of the event that fired the trigger")
+        private Instant timestamp;
+
+        @Schema(
+            title = "Rendered condition",
+            description = "Rendered value of the exitCondition property for this poll."
+        )
+        private String condition;
+
+        @Schema(
+            title = "Script exit code",
+            description = "Exit code returned by the script or commands (may be null if not available)."
+        )
+        private Integer exitCode;
+
+        @Schema(
+            title = "Script vars",
+            description = """
+                Vars produced by the task (e.g. via ::{"outputs":{...}}:: convention). This is the main structured
+                way to evaluate non-exit conditions on successful runs.
+                """
+        )
+        private Map<String, Object> vars;
+    }
+}
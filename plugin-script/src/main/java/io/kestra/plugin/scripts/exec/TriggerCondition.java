@@ -0,0 +1,296 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled {@code exitCondition} of the script triggers.
+ * <p>
+ * A condition is parsed once and then evaluated against the exit code and the structured vars of each run:
+ * <ul>
+ *     <li>{@code exit N}: the exit code is {@code N};</li>
+ *     <li>{@code $.path.to.key}: the var exists and is neither {@code null} nor {@code false};</li>
+ *     <li>{@code $.path.to.key=value} or {@code path.to.key=value}: the var, rendered as a string, is {@code value};</li>
+ *     <li>{@code changed} or {@code changed $.path.to.key}: the vars, or that var, differ from the previous
+ *     evaluation; this one is stateful, see {@link #isChangeDetection()};</li>
+ *     <li>anything else is a regex (or a substring when it is not a valid regex) searched in each
+ *     {@code path=value} leaf of the vars, then, when it contains {@code ,}, <code>{</code> or <code>}</code>, in the
+ *     whole vars rendered as a map, e.g. {@code {a=1, b=2}}.</li>
+ * </ul>
+ * Paths are dot-separated; list items are addressed by their index, e.g. {@code $.files.0.name}.
+ * <p>
+ * The whole-map search is the former matching, kept as a fallback so that regexes spanning several keys keep
+ * working. It renders the whole vars, so it is limited to the regexes that can span several keys, which need the
+ * separators of the rendered map: the other ones match a leaf or nothing. A {@code key=value} condition that does not
+ * hold also falls back to the regex search, for the same reason.
+ */
+public final class TriggerCondition {
+    private static final Pattern EXIT_PATTERN = Pattern.compile("^exit\\s+(\\d+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern KEY_VALUE_PATTERN = Pattern.compile("^(?:\\$\\.)?([A-Za-z_][\\w\\-]*(?:\\.[\\w\\-]+)*)\\s*=\\s*(.*)$");
+    private static final Pattern JSON_PATH_PATTERN = Pattern.compile("^\\$\\.([A-Za-z_][\\w\\-]*(?:\\.[\\w\\-]+)*)$");
+    private static final Pattern CHANGED_PATTERN = Pattern.compile("^changed(?:\\s+\\$\\.([A-Za-z_][\\w\\-]*(?:\\.[\\w\\-]+)*))?$", Pattern.CASE_INSENSITIVE);
+
+    // guards against catastrophic backtracking in user-supplied regexes
+    private static final long REGEX_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private static final Pattern SPANNING_PATTERN = Pattern.compile("[,{}]");
+
+    private static final TriggerCondition NEVER = new TriggerCondition("", Kind.NEVER, null, null, null, null);
+
+    private enum Kind { NEVER, EXIT, PATH, KEY_VALUE, REGEX, CHANGED }
+
+    private final String source;
+    private final Kind kind;
+    private final Integer exitCode;
+    private final String[] path;
+    private final String value;
+    private final Pattern pattern;
+    private final boolean spansKeys;
+
+    private TriggerCondition(String source, Kind kind, Integer exitCode, String[] path, String value, Pattern pattern) {
+        this.source = source;
+        this.kind = kind;
+        this.exitCode = exitCode;
+        this.path = path;
+        this.value = value;
+        this.pattern = pattern;
+        this.spansKeys = SPANNING_PATTERN.matcher(source).find();
+    }
+
+    /**
+     * Parses a rendered condition.
+     *
+     * @param condition the rendered condition, may be {@code null}
+     * @return the compiled condition; a blank condition never matches
+     */
+    public static TriggerCondition compile(String condition) {
+        String trimmed = condition == null ? "" : condition.trim();
+
+        if (trimmed.isEmpty()) {
+            return NEVER;
+        }
+
+        Matcher exit = EXIT_PATTERN.matcher(trimmed);
+        if (exit.matches()) {
+            return new TriggerCondition(trimmed, Kind.EXIT, Integer.parseInt(exit.group(1)), null, null, null);
+        }
+
+        Matcher changed = CHANGED_PATTERN.matcher(trimmed);
+        if (changed.matches()) {
+            return new TriggerCondition(trimmed, Kind.CHANGED, null, changed.group(1) != null ? changed.group(1).split("\\.") : null, null, null);
+        }
+
+        Matcher jsonPath = JSON_PATH_PATTERN.matcher(trimmed);
+        if (jsonPath.matches()) {
+            return new TriggerCondition(trimmed, Kind.PATH, null, jsonPath.group(1).split("\\."), null, null);
+        }
+
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(trimmed);
+        } catch (PatternSyntaxException e) {
+            pattern = null;
+        }
+
+        Matcher keyValue = KEY_VALUE_PATTERN.matcher(trimmed);
+        if (keyValue.matches()) {
+            return new TriggerCondition(trimmed, Kind.KEY_VALUE, null, keyValue.group(1).split("\\."), keyValue.group(2).trim(), pattern);
+        }
+
+        return new TriggerCondition(trimmed, Kind.REGEX, null, null, null, pattern);
+    }
+
+    /**
+     * Returns the compiled condition held by {@code cache}, compiling it again only when the rendered condition
+     * changed since the last call.
+     *
+     * @param cache the per-trigger cache
+     * @param condition the rendered condition, may be {@code null}
+     * @return the compiled condition
+     */
+    public static TriggerCondition cached(AtomicReference<TriggerCondition> cache, String condition) {
+        String trimmed = condition == null ? "" : condition.trim();
+        TriggerCondition current = cache.get();
+
+        if (current != null && current.source.equals(trimmed)) {
+            return current;
+        }
+
+        TriggerCondition compiled = compile(trimmed);
+        cache.set(compiled);
+        return compiled;
+    }
+
+    /**
+     * @return the trimmed condition this was compiled from
+     */
+    public String source() {
+        return this.source;
+    }
+
+    /**
+     * @return whether this is a {@code changed} condition, which {@link #matches(Integer, Map)} cannot evaluate alone:
+     * the caller compares the digest of {@link #changeSubject(Map)} with the one of the previous evaluation
+     */
+    public boolean isChangeDetection() {
+        return this.kind == Kind.CHANGED;
+    }
+
+    /**
+     * @param vars the vars of the run, may be {@code null}
+     * @return what a {@code changed} condition watches: the whole vars, or the var at its path
+     */
+    public Object changeSubject(Map<String, Object> vars) {
+        return this.path == null ? vars : resolve(vars, this.path);
+    }
+
+    /**
+     * @param exitCode the exit code of the run, may be {@code null}
+     * @param vars the vars of the run, may be {@code null}
+     * @return whether the condition holds
+     */
+    public boolean matches(Integer exitCode, Map<String, Object> vars) {
+        return switch (this.kind) {
+            case NEVER, CHANGED -> false;
+            case EXIT -> exitCode != null && exitCode.equals(this.exitCode);
+            case PATH -> {
+                Object found = resolve(vars, this.path);
+                yield found != null && !Boolean.FALSE.equals(found);
+            }
+            case KEY_VALUE -> {
+                Object found = resolve(vars, this.path);
+                yield (found != null && this.value.equals(String.valueOf(found))) || this.search(vars);
+            }
+            case REGEX -> this.search(vars);
+        };
+    }
+
+    private boolean search(Map<String, Object> vars) {
+        if (vars == null || vars.isEmpty()) {
+            return false;
+        }
+
+        return this.searchIn("", vars) || (this.spansKeys && this.find(vars.toString()));
+    }
+
+    private boolean searchIn(String prefix, Object node) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (this.searchIn(prefix.isEmpty() ? String.valueOf(entry.getKey()) : prefix + "." + entry.getKey(), entry.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (node instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                if (this.searchIn(prefix + "." + i, list.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return this.find(prefix + "=" + node);
+    }
+
+    private boolean find(String haystack) {
+        if (this.pattern == null) {
+            return haystack.contains(this.source);
+        }
+
+        try {
+            return this.pattern.matcher(new DeadlineCharSequence(haystack, System.nanoTime() + REGEX_TIMEOUT_NANOS)).find();
+        } catch (RegexTimeoutException e) {
+            return haystack.contains(this.source);
+        }
+    }
+
+    private static Object resolve(Map<String, Object> vars, String[] path) {
+        Object current = vars;
+
+        for (String segment : path) {
+            if (current instanceof Map<?, ?> map) {
+                current = map.get(segment);
+            } else if (current instanceof List<?> list && segment.chars().allMatch(Character::isDigit)) {
+                int index = Integer.parseInt(segment);
+                current = index < list.size() ? list.get(index) : null;
+            } else {
+                return null;
+            }
+
+            if (current == null) {
+                return null;
+            }
+        }
+
+        return current;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TriggerCondition other && Objects.equals(this.source, other.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.source);
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+
+    private static class RegexTimeoutException extends RuntimeException {
+        RegexTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Aborts a regex evaluation past a deadline: the matcher reads its input through {@link #charAt(int)},
+     * so a runaway backtracking is interrupted without a watchdog thread.
+     */
+    private static class DeadlineCharSequence implements CharSequence {
+        private static final int CHECK_EVERY = 4096;
+
+        private final CharSequence delegate;
+        private final long deadline;
+        private int reads;
+
+        DeadlineCharSequence(CharSequence delegate, long deadline) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++this.reads % CHECK_EVERY == 0 && System.nanoTime() > this.deadline) {
+                throw new RegexTimeoutException();
+            }
+            return this.delegate.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return this.delegate.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(this.delegate.subSequence(start, end), this.deadline);
+        }
+
+        @Override
+        public String toString() {
+            return this.delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.kestra.core.exceptions.KestraRuntimeException;
+import io.kestra.core.serializers.JacksonMapper;
+
+/**
+ * SHA-256 digests of the results of script trigger evaluations, and the digest of the last evaluation of a trigger,
+ * used by the {@code changed} condition.
+ * <p>
+ * Like {@link TriggerEdgeState}, the last digest can be persisted with {@link TriggerStateStore}, so it survives
+ * scheduler restarts and is shared by all the scheduler nodes.
+ */
+public final class TriggerDigest {
+    static final String KIND = "digest";
+
+    private static final String DIGEST = "digest";
+
+    private TriggerDigest() {}
+
+    /**
+     * @param value a JSON-serializable value, e.g. the vars of an evaluation
+     * @return the hex-encoded SHA-256 of its JSON form, with map keys sorted, or {@code null} for a {@code null} value
+     */
+    public static String of(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            // keys are sorted so that the same vars always give the same digest
+            byte[] json = JacksonMapper.ofJson().writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(value);
+            return HexFormat.of().formatHex(sha256().digest(json));
+        } catch (JsonProcessingException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+
+    /**
+     * @param inputStream the content to digest, read until its end then closed
+     * @return the hex-encoded SHA-256 of the content
+     */
+    public static String of(InputStream inputStream) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, digest)) {
+            digestInputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param stored the persisted digest of the last evaluation of a trigger, see {@link TriggerStateStore}
+     * @return the digest, or empty if there is none
+     */
+    static Optional<String> of(TriggerStateStore.Stored stored) {
+        return Optional.ofNullable(stored.values().get(DIGEST)).map(String::valueOf);
+    }
+
+    /**
+     * @param digest the digest of the last evaluation of a trigger
+     * @return the values to persist it with, see {@link TriggerStateStore}
+     */
+    static Map<String, Object> values(String digest) {
+        return Map.of(DIGEST, digest);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new KestraRuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Edge-detection state of a script trigger: whether its last evaluation matched, and a hash of the vars of that
+ * evaluation.
+ * <p>
+ * The state can be persisted with {@link TriggerStateStore}, so it survives scheduler restarts and is shared by all the
+ * scheduler nodes. It is only written when it changes, or when it is about to expire.
+ *
+ * @param matched whether the last evaluation matched
+ * @param varsHash the SHA-256 of the vars of the last evaluation, {@code null} when it did not match
+ */
+public record TriggerEdgeState(boolean matched, String varsHash) {
+    public static final TriggerEdgeState INITIAL = new TriggerEdgeState(false, null);
+
+    static final String KIND = "state";
+
+    private static final String MATCHED = "matched";
+    private static final String VARS_HASH = "varsHash";
+
+    /**
+     * @param matched whether the evaluation matched
+     * @param vars the vars of the evaluation, may be {@code null}
+     * @return the state of the evaluation
+     */
+    public static TriggerEdgeState of(boolean matched, Map<String, Object> vars) {
+        return new TriggerEdgeState(matched, matched ? hash(vars) : null);
+    }
+
+    /**
+     * @param stored the persisted state of the trigger, see {@link TriggerStateStore}
+     * @return the state
+     */
+    static TriggerEdgeState of(TriggerStateStore.Stored stored) {
+        return new TriggerEdgeState(
+            Boolean.TRUE.equals(stored.values().get(MATCHED)),
+            stored.values().get(VARS_HASH) != null ? String.valueOf(stored.values().get(VARS_HASH)) : null
+        );
+    }
+
+    /**
+     * @return the values to persist this state with, see {@link TriggerStateStore}
+     */
+    Map<String, Object> values() {
+        Map<String, Object> values = new HashMap<>();
+        values.put(MATCHED, this.matched);
+        values.put(VARS_HASH, this.varsHash);
+        return values;
+    }
+
+    private static String hash(Map<String, Object> vars) {
+        return vars == null || vars.isEmpty() ? null : TriggerDigest.of(vars);
+    }
+}
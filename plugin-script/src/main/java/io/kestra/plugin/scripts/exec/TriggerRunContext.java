@@ -5,9 +5,14 @@ import io.kestra.core.runners.DefaultRunContext;
 import io.kestra.core.runners.RunContext;
 
 import java.lang.reflect.Field;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Helper for running an embedded task from within a trigger evaluation.
@@ -25,9 +30,15 @@ import java.util.Optional;
  * no public mutator — {@code setVariables()} is package-private. Reflection is the
  * only available mechanism from plugin code that does not require creating a completely
  * disconnected RunContext (which would lose the trigger's logger and storage).
+ *
+ * <p>Since this runs on every poll, the {@code Field} handle is looked up once, and the
+ * trigger variables are not copied: the clone gets an overlay that only holds the
+ * synthetic entries and reads everything else from the trigger variables.
  */
 public final class TriggerRunContext {
 
+    private static final Field VARIABLES_FIELD = variablesField();
+
     private TriggerRunContext() {}
 
     /**
@@ -48,31 +59,134 @@ public final class TriggerRunContext {
      * @return an enriched RunContext safe to pass to {@code task.run()}
      */
     public static RunContext forEmbeddedTask(RunContext triggerCtx, Task task) {
-        if (!(triggerCtx instanceof DefaultRunContext base)) {
+        return forEmbeddedTask(triggerCtx, task.getId(), task.getType());
+    }
+
+    /**
+     * Same as {@link #forEmbeddedTask(RunContext, Task)} for callers that run commands
+     * directly rather than through a task instance.
+     *
+     * @param triggerCtx the RunContext from {@code conditionContext.getRunContext()}
+     * @param id the id exposed as {@code task.id}, may be {@code null}
+     * @param type the type exposed as {@code task.type}, may be {@code null}
+     * @return an enriched RunContext
+     */
+    public static RunContext forEmbeddedTask(RunContext triggerCtx, String id, String type) {
+        if (!(triggerCtx instanceof DefaultRunContext base) || VARIABLES_FIELD == null) {
             return triggerCtx;
         }
 
-        DefaultRunContext clone = base.clone();
-
-        Map<String, Object> vars = new HashMap<>(triggerCtx.getVariables());
-
-        String taskId = Optional.ofNullable(task.getId()).orElse("trigger-embedded-task");
-        String taskType = Optional.ofNullable(task.getType()).orElse("");
-        vars.putIfAbsent("task", Map.of("id", taskId, "type", taskType));
+        Map<String, Object> variables = triggerCtx.getVariables();
 
+        String taskId = Optional.ofNullable(id).orElse("trigger-embedded-task");
+        String taskType = Optional.ofNullable(type).orElse("");
         String evalId = Optional.ofNullable(triggerCtx.getTriggerExecutionId())
             .orElse(taskId + "-eval");
-        vars.putIfAbsent("execution", Map.of("id", evalId));
-        vars.putIfAbsent("taskrun", Map.of("id", evalId + "-taskrun", "attemptsCount", "0"));
 
+        Map<String, Object> synthetic = new HashMap<>();
+        if (!variables.containsKey("task")) {
+            synthetic.put("task", Map.of("id", taskId, "type", taskType));
+        }
+        if (!variables.containsKey("execution")) {
+            synthetic.put("execution", Map.of("id", evalId));
+        }
+        if (!variables.containsKey("taskrun")) {
+            synthetic.put("taskrun", Map.of("id", evalId + "-taskrun", "attemptsCount", "0"));
+        }
+
+        if (synthetic.isEmpty()) {
+            return triggerCtx;
+        }
+
+        DefaultRunContext clone = base.clone();
         try {
-            Field variablesField = DefaultRunContext.class.getDeclaredField("variables");
-            variablesField.setAccessible(true);
-            variablesField.set(clone, vars);
+            VARIABLES_FIELD.set(clone, new OverlayVariables(variables, synthetic));
         } catch (Exception ignored) {
             return triggerCtx;
         }
 
         return clone;
     }
+
+    private static Field variablesField() {
+        try {
+            Field field = DefaultRunContext.class.getDeclaredField("variables");
+            field.setAccessible(true);
+            return field;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Variables of the trigger with a few entries added or replaced, without copying the trigger variables.
+     * Writes only go to the overlay; the trigger variables are never modified.
+     */
+    static final class OverlayVariables extends AbstractMap<String, Object> {
+        private final Map<String, Object> base;
+        private final Map<String, Object> overlay;
+
+        OverlayVariables(Map<String, Object> base, Map<String, Object> overlay) {
+            this.base = base;
+            this.overlay = overlay;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return this.overlay.containsKey(key) ? this.overlay.get(key) : this.base.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.overlay.containsKey(key) || this.base.containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = this.get(key);
+            this.overlay.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            if (this.base.containsKey(key)) {
+                throw new UnsupportedOperationException("Trigger variables cannot be removed");
+            }
+            return this.overlay.remove(key);
+        }
+
+        @Override
+        public int size() {
+            int size = this.base.size();
+            for (String key : this.overlay.keySet()) {
+                if (!this.base.containsKey(key)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            // a view: the overlay entries, then the trigger entries not shadowed by them; the trigger entries are
+            // read-only, as the trigger variables must not be modified through them
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return Stream.concat(
+                        overlay.entrySet().stream(),
+                        base.entrySet().stream()
+                            .filter(entry -> !overlay.containsKey(entry.getKey()))
+                            .map(entry -> (Entry<String, Object>) new SimpleImmutableEntry<>(entry))
+                    ).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return OverlayVariables.this.size();
+                }
+            };
+        }
+    }
 }
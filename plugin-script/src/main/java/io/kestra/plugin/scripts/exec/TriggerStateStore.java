@@ -0,0 +1,103 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.kestra.core.models.triggers.TriggerContext;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.storages.kv.KVMetadata;
+import io.kestra.core.storages.kv.KVValue;
+import io.kestra.core.storages.kv.KVValueAndMetadata;
+
+/**
+ * Stores the state of the script triggers, see {@link TriggerEdgeState} and {@link TriggerDigest}, in the KV store of
+ * the flow namespace.
+ * <p>
+ * The keys start with the reserved {@link #KEY_PREFIX}, followed by the kind of state and the SHA-256 of the flow and
+ * trigger ids, so that two triggers never share a key whatever their ids. Each value records the hash of the condition
+ * it was computed for, and is ignored once the condition is edited.
+ * <p>
+ * The values expire after a TTL, so the state of the deleted triggers does not pile up in the KV store. A value is
+ * written again once half of its TTL is spent, so the state of a trigger that keeps polling never expires even when it
+ * does not change.
+ */
+final class TriggerStateStore {
+    static final String KEY_PREFIX = "kestra_script-trigger_";
+
+    private static final String CONDITION = "condition";
+    private static final String SAVED_AT = "savedAt";
+
+    /**
+     * A stored state.
+     *
+     * @param values the values of the state
+     * @param savedAt when the state was written
+     */
+    record Stored(Map<String, Object> values, Instant savedAt) {
+        /**
+         * @param ttl the TTL of the state
+         * @return whether the state must be written again, even unchanged, so that it does not expire
+         */
+        boolean needsRefresh(Duration ttl) {
+            return this.savedAt.plus(ttl.dividedBy(2)).isBefore(Instant.now());
+        }
+    }
+
+    private TriggerStateStore() {}
+
+    /**
+     * @param kind the kind of state, part of the key
+     * @param conditionHash the hash of the condition the state must have been computed for
+     * @return the stored state of the trigger, or empty if there is none for this condition
+     */
+    static Optional<Stored> load(RunContext runContext, TriggerContext context, String kind, String conditionHash) throws Exception {
+        Optional<KVValue> value = runContext.namespaceKv(context.getNamespace()).getValue(key(context, kind));
+
+        if (value.isEmpty() || !(value.get().value() instanceof Map<?, ?> stored) || !conditionHash.equals(stored.get(CONDITION))) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        stored.forEach((k, v) -> values.put(String.valueOf(k), v));
+
+        return Optional.of(new Stored(values, savedAt(stored.get(SAVED_AT))));
+    }
+
+    /**
+     * Writes the state of the trigger.
+     *
+     * @param kind the kind of state, part of the key
+     * @param conditionHash the hash of the condition the state was computed for
+     * @param ttl how long the state is kept without being written again
+     * @param values the values of the state
+     */
+    static void save(RunContext runContext, TriggerContext context, String kind, String conditionHash, Duration ttl, Map<String, Object> values) throws Exception {
+        Map<String, Object> stored = new HashMap<>(values);
+        stored.put(CONDITION, conditionHash);
+        stored.put(SAVED_AT, Instant.now().toString());
+
+        runContext.namespaceKv(context.getNamespace()).put(
+            key(context, kind),
+            new KVValueAndMetadata(new KVMetadata("Script trigger " + kind + " of the trigger " + context.getTriggerId() + " of the flow " + context.getFlowId(), ttl), stored)
+        );
+    }
+
+    static String key(TriggerContext context, String kind) {
+        // hashed, as KV keys only allow alphanumerics, dots, dashes and underscores, which ids may contain as well
+        return KEY_PREFIX + kind + "_" + TriggerDigest.of(List.of(context.getFlowId(), context.getTriggerId()));
+    }
+
+    private static Instant savedAt(Object value) {
+        try {
+            return value != null ? Instant.parse(String.valueOf(value)) : Instant.EPOCH;
+        } catch (DateTimeParseException e) {
+            // written again on the next evaluation
+            return Instant.EPOCH;
+        }
+    }
+}
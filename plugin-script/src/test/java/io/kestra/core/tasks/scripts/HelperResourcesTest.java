@@ -0,0 +1,101 @@
+package io.kestra.core.tasks.scripts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class HelperResourcesTest {
+    private static final String HELPER = "logback.xml";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void resourcesAreReadOncePerClass() throws Exception {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        Class<?> owner = classLoader.owner();
+
+        byte[] first = HelperResources.load(owner, HELPER);
+        byte[] second = HelperResources.load(owner, HELPER);
+
+        assertThat(second, is(first));
+        assertThat(classLoader.reads.get(), is(1));
+
+        // a reloaded plugin reads its own version
+        CountingClassLoader reloaded = new CountingClassLoader();
+        HelperResources.load(reloaded.owner(), HELPER);
+        assertThat(reloaded.reads.get(), is(1));
+    }
+
+    @Test
+    void helpersAreLinkedForProcessesAndCopiedForContainers() throws Exception {
+        Path helpers = this.temp.resolve("helpers");
+        Path process = Files.createDirectories(this.temp.resolve("process"));
+        Path container = Files.createDirectories(this.temp.resolve("container"));
+
+        HelperResources.stage(helpers, HelperResourcesTest.class, process, List.of(HELPER), true);
+        HelperResources.stage(helpers, HelperResourcesTest.class, container, List.of(HELPER), false);
+
+        Path shared = helpers.resolve(digest(HelperResources.load(HelperResourcesTest.class, HELPER))).resolve(HELPER);
+        assertThat(Files.isSameFile(process.resolve(HELPER), shared), is(true));
+        assertThat(Files.isSameFile(container.resolve(HELPER), shared), is(false));
+        assertThat(Files.readAllBytes(container.resolve(HELPER)), is(Files.readAllBytes(shared)));
+    }
+
+    @Test
+    void helpersAreCopiedWhenTheyCannotBeLinked() throws Exception {
+        Path helpers = this.temp.resolve("helpers");
+        Path workingDirectory = Files.createDirectories(this.temp.resolve("working-dir"));
+        byte[] content = HelperResources.load(HelperResourcesTest.class, HELPER);
+
+        // a directory in place of the shared copy, which can't be hard linked
+        Files.createDirectories(helpers.resolve(digest(content)).resolve(HELPER));
+
+        HelperResources.stage(helpers, HelperResourcesTest.class, workingDirectory, List.of(HELPER), true);
+
+        assertThat(Files.isRegularFile(workingDirectory.resolve(HELPER)), is(true));
+        assertThat(Files.readAllBytes(workingDirectory.resolve(HELPER)), is(content));
+    }
+
+    private static String digest(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    static class Owner {}
+
+    /**
+     * Defines its own copy of {@link Owner}, and counts the resources read through it.
+     */
+    private static class CountingClassLoader extends ClassLoader {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        CountingClassLoader() {
+            super(HelperResourcesTest.class.getClassLoader());
+        }
+
+        Class<?> owner() throws IOException {
+            String resource = Owner.class.getName().replace('.', '/') + ".class";
+            try (InputStream inputStream = getParent().getResourceAsStream(resource)) {
+                byte[] bytes = inputStream.readAllBytes();
+                return defineClass(Owner.class.getName(), bytes, 0, bytes.length);
+            }
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name) {
+            this.reads.incrementAndGet();
+            return super.getResourceAsStream(name);
+        }
+    }
+}
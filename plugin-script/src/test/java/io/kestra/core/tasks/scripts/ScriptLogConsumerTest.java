@@ -0,0 +1,50 @@
+package io.kestra.core.tasks.scripts;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@KestraTest
+class ScriptLogConsumerTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void onlyMessageCandidatesAreParsed() {
+        try (ScriptLogConsumer consumer = new ScriptLogConsumer(runContextFactory.of(), 1, null, null)) {
+            for (int i = 0; i < 10_000; i++) {
+                consumer.accept("line " + i, false);
+            }
+            consumer.accept("error", true);
+            consumer.accept("  ::{\"outputs\":{\"done\":true}}::", false);
+
+            assertThat(consumer.getParsedLines(), is(1L));
+            assertThat(consumer.getStdOutCount(), is(10_001));
+            assertThat(consumer.getStdErrCount(), is(1));
+            assertThat(consumer.getOutputs(), is(Map.of("done", true)));
+        }
+    }
+
+    @Test
+    void batchedLinesAreCountedOnce() {
+        try (ScriptLogConsumer consumer = new ScriptLogConsumer(runContextFactory.of(), 100, null, 10)) {
+            for (int i = 0; i < 1_000; i++) {
+                consumer.accept("line " + i, i % 2 == 0);
+            }
+            consumer.flush();
+
+            // every line is counted, including the ones over the limit per second
+            assertThat(consumer.getParsedLines(), is(0L));
+            assertThat(consumer.getStdOutCount(), is(500));
+            assertThat(consumer.getStdErrCount(), is(500));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class TriggerConditionTest {
+    private static final Map<String, Object> VARS = Map.of(
+        "status", "ready",
+        "count", 3,
+        "enabled", false,
+        "file", Map.of("name", "orders.csv", "size", 1024),
+        "items", List.of(Map.of("id", "a"), Map.of("id", "b"))
+    );
+
+    @ParameterizedTest
+    @CsvSource({
+        "exit 1, 1, true",
+        "EXIT 1, 1, true",
+        "' exit 2 ', 2, true",
+        "exit 1, 0, false",
+    })
+    void exitCode(String condition, int exitCode, boolean expected) {
+        assertThat(TriggerCondition.compile(condition).matches(exitCode, null), is(expected));
+    }
+
+    @Test
+    void exitCode_null() {
+        assertThat(TriggerCondition.compile("exit 1").matches(null, VARS), is(false));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "$.status, true",
+        "$.file.name, true",
+        "$.items.1.id, true",
+        "$.items.2.id, false",
+        "$.missing, false",
+        "$.enabled, false",
+    })
+    void path(String condition, boolean expected) {
+        assertThat(TriggerCondition.compile(condition).matches(0, VARS), is(expected));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "status=ready, true",
+        "$.status=ready, true",
+        "count=3, true",
+        "file.name=orders.csv, true",
+        "$.items.0.id=a, true",
+        "status=done, false",
+    })
+    void keyValue(String condition, boolean expected) {
+        assertThat(TriggerCondition.compile(condition).matches(0, VARS), is(expected));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "ready, true",
+        "orders\\.csv$, true",
+        "^file.size=\\d+$, true",
+        "'[unclosed', false",
+        "nothing, false",
+    })
+    void regex(String condition, boolean expected) {
+        assertThat(TriggerCondition.compile(condition).matches(0, VARS), is(expected));
+    }
+
+    @Test
+    void regex_spanningSeveralKeysMatchesTheWholeVars() {
+        Map<String, Object> vars = new LinkedHashMap<>();
+        vars.put("status", "ready");
+        vars.put("count", 3);
+
+        assertThat(TriggerCondition.compile("status=ready, count=\\d").matches(0, vars), is(true));
+        assertThat(TriggerCondition.compile("status=ready, count=4").matches(0, vars), is(false));
+    }
+
+    @Test
+    void regex_withoutMapSeparatorsOnlyMatchesTheLeaves() {
+        Map<String, Object> vars = new LinkedHashMap<>();
+        vars.put("status", "ready");
+        vars.put("count", 3);
+
+        // would match the whole vars rendered as a map, but can't be meant to span the keys
+        assertThat(TriggerCondition.compile("ready.*count").matches(0, vars), is(false));
+        assertThat(TriggerCondition.compile("ready}").matches(0, Map.of("status", "ready")), is(true));
+    }
+
+    @Test
+    void regex_invalidFallsBackToSubstring() {
+        assertThat(TriggerCondition.compile("[a").matches(0, Map.of("k", "x[a")), is(true));
+    }
+
+    @Test
+    void blankCondition_neverMatches() {
+        assertThat(TriggerCondition.compile("").matches(0, VARS), is(false));
+        assertThat(TriggerCondition.compile(null).matches(0, VARS), is(false));
+    }
+
+    @Test
+    void cached_recompilesOnlyWhenConditionChanges() {
+        AtomicReference<TriggerCondition> cache = new AtomicReference<>();
+
+        TriggerCondition first = TriggerCondition.cached(cache, "status=ready");
+        assertThat(TriggerCondition.cached(cache, " status=ready "), sameInstance(first));
+
+        TriggerCondition second = TriggerCondition.cached(cache, "exit 1");
+        assertThat(second, not(sameInstance(first)));
+        assertThat(cache.get(), sameInstance(second));
+    }
+
+    @Test
+    void changed_isStatefulAndWatchesTheVarsOrAPath() {
+        TriggerCondition all = TriggerCondition.compile("changed");
+        TriggerCondition file = TriggerCondition.compile("CHANGED $.file.name");
+
+        assertThat(all.isChangeDetection(), is(true));
+        assertThat(all.matches(0, VARS), is(false));
+        assertThat(all.changeSubject(VARS), is(VARS));
+        assertThat(file.changeSubject(VARS), is("orders.csv"));
+        assertThat(TriggerCondition.compile("status=changed").isChangeDetection(), is(false));
+    }
+}
@@ -0,0 +1,82 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.runners.RunContextFactory;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class TriggerRunContextTest {
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldAddTheMissingTaskVariablesWithoutTouchingTheTriggerOnes() {
+        RunContext triggerContext = runContextFactory.of(Map.of("flow", Map.of("id", "my-flow")));
+
+        RunContext embedded = TriggerRunContext.forEmbeddedTask(triggerContext, "my-trigger", "io.kestra.Type");
+
+        assertThat(embedded, not(sameInstance(triggerContext)));
+        assertThat(((Map<String, Object>) embedded.getVariables().get("task")).get("id"), is("my-trigger"));
+        assertThat(((Map<String, Object>) embedded.getVariables().get("flow")).get("id"), is("my-flow"));
+        assertThat(embedded.getVariables(), hasKey("execution"));
+        assertThat(embedded.getVariables(), hasKey("taskrun"));
+        assertThat(triggerContext.getVariables(), not(hasKey("task")));
+    }
+
+    @Test
+    void shouldReuseTheTriggerContextWhenNothingIsMissing() {
+        RunContext triggerContext = runContextFactory.of(Map.of(
+            "task", Map.of("id", "task"),
+            "execution", Map.of("id", "execution"),
+            "taskrun", Map.of("id", "taskrun")
+        ));
+
+        assertThat(TriggerRunContext.forEmbeddedTask(triggerContext, "my-trigger", "io.kestra.Type"), sameInstance(triggerContext));
+    }
+
+    @Test
+    void overlayShouldShadowTheBaseVariables() {
+        Map<String, Object> base = Map.of("a", 1, "b", 2);
+        TriggerRunContext.OverlayVariables variables = new TriggerRunContext.OverlayVariables(base, new HashMap<>(Map.of("b", 3, "c", 4)));
+
+        assertThat(variables.get("a"), is(1));
+        assertThat(variables.get("b"), is(3));
+        assertThat(variables.size(), is(3));
+        assertThat(variables, is(Map.of("a", 1, "b", 3, "c", 4)));
+
+        variables.put("a", 5);
+        assertThat(variables.get("a"), is(5));
+        assertThat(base.get("a"), is(1));
+    }
+
+    @Test
+    void overlayEntriesShouldBeAViewOfBothMaps() {
+        Map<String, Object> base = new HashMap<>(Map.of("a", 1, "b", 2));
+        TriggerRunContext.OverlayVariables variables = new TriggerRunContext.OverlayVariables(base, new HashMap<>(Map.of("b", 3)));
+        Set<Map.Entry<String, Object>> entries = variables.entrySet();
+
+        variables.put("c", 4);
+        assertThat(entries.size(), is(3));
+        assertThat(Map.copyOf(variables), is(Map.of("a", 1, "b", 3, "c", 4)));
+
+        Map.Entry<String, Object> trigger = entries.stream().filter(entry -> entry.getKey().equals("a")).findFirst().orElseThrow();
+        assertThrows(UnsupportedOperationException.class, () -> trigger.setValue(5));
+        assertThat(base.get("a"), is(1));
+    }
+}
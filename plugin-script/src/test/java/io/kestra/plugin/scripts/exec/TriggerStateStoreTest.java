@@ -0,0 +1,42 @@
+package io.kestra.plugin.scripts.exec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.models.triggers.TriggerContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+class TriggerStateStoreTest {
+    @Test
+    void keysAreUnambiguous() {
+        String key = TriggerStateStore.key(context("a_b", "c"), TriggerEdgeState.KIND);
+
+        assertThat(key, startsWith(TriggerStateStore.KEY_PREFIX + TriggerEdgeState.KIND + "_"));
+        assertThat(key.matches("[A-Za-z0-9._-]+"), is(true));
+        assertThat(key, not(TriggerStateStore.key(context("a", "b_c"), TriggerEdgeState.KIND)));
+        assertThat(key, not(TriggerStateStore.key(context("a_b", "c"), TriggerDigest.KIND)));
+    }
+
+    @Test
+    void statesAreRefreshedOnceHalfOfTheirTtlIsSpent() {
+        Duration ttl = Duration.ofDays(7);
+
+        assertThat(new TriggerStateStore.Stored(Map.of(), Instant.now().minus(Duration.ofDays(1))).needsRefresh(ttl), is(false));
+        assertThat(new TriggerStateStore.Stored(Map.of(), Instant.now().minus(Duration.ofDays(4))).needsRefresh(ttl), is(true));
+    }
+
+    private static TriggerContext context(String flowId, String triggerId) {
+        return TriggerContext.builder()
+            .namespace("company.team")
+            .flowId(flowId)
+            .triggerId(triggerId)
+            .build();
+    }
+}